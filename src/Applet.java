@@ -22,16 +22,16 @@
  * THE SOFTWARE.
  */
 import fr.neatmonster.game2048.Game2048;
-
-import java.awt.*;
+import fr.neatmonster.game2048.Metrics;
 
 public class Applet extends java.applet.Applet {
 
     @Override
     public void init() {
         final Game2048 game = new Game2048();
-        game.setPreferredSize(new Dimension(539, 691));
         add(game);
         setVisible(true);
+        Game2048.loadAssets(game, null);
+        Metrics.register(game);
     }
 }
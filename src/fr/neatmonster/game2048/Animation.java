@@ -26,9 +26,11 @@ package fr.neatmonster.game2048;
 import java.awt.*;
 
 class Animation implements Comparable {
-    private final boolean special;
-    int duration;
-    int current;
+    private final boolean   special;
+                  int       duration;
+                  int       current;
+                  long      start;
+                  Rectangle bounds = Layout.SCREEN;
 
     Animation(final int duration) {
         this(duration, false);
@@ -39,12 +41,25 @@ class Animation implements Comparable {
         this.special = special;
     }
 
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
     public boolean isSpecial() {
         return special;
     }
 
+    void start(final long now) {
+        start = now;
+        current = 0;
+    }
+
+    void advance(final long now) {
+        current = (int) Math.min(duration, now - start);
+    }
+
     public void paint(final Graphics2D g) {
-        if (++current >= duration)
+        if (current >= duration)
             terminate();
     }
 
@@ -0,0 +1,125 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.awt.*;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AnimationQueue {
+    private final    Queue<Animation> incoming = new ConcurrentLinkedQueue<Animation>();
+    private final    AtomicInteger    size     = new AtomicInteger();
+    private          Animation[]      active   = new Animation[16];
+    private          int              count    = 0;
+    private volatile long             dirty    = 0L;
+
+    public void add(final Animation animation) {
+        incoming.offer(animation);
+        size.incrementAndGet();
+    }
+
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long getDirty() {
+        return dirty;
+    }
+
+    private void drain() {
+        Animation animation;
+        while ((animation = incoming.poll()) != null) {
+            if (count == active.length) {
+                final Animation[] grown = new Animation[count * 2];
+                System.arraycopy(active, 0, grown, 0, count);
+                active = grown;
+            }
+            active[count++] = animation;
+        }
+    }
+
+    public void paint(final Graphics2D g, final long now) {
+        drain();
+        int kept = 0, x = Integer.MAX_VALUE, y = Integer.MAX_VALUE, right = 0, bottom = 0;
+        for (int i = 0; i < count; i++) {
+            final Animation animation = active[i];
+            animation.advance(now);
+            animation.paint(g);
+            if (animation.hasTerminated()) {
+                size.decrementAndGet();
+                continue;
+            }
+            final Rectangle bounds = animation.getBounds();
+            x = Math.min(x, bounds.x);
+            y = Math.min(y, bounds.y);
+            right = Math.max(right, bounds.x + bounds.width);
+            bottom = Math.max(bottom, bounds.y + bounds.height);
+            active[kept++] = animation;
+        }
+        compact(kept);
+        dirty = kept == 0 ? 0L : pack(x, y, right, bottom);
+    }
+
+    static long pack(final Rectangle bounds) {
+        return pack(bounds.x, bounds.y, bounds.x + bounds.width, bounds.y + bounds.height);
+    }
+
+    public void terminate(final boolean force) {
+        drain();
+        for (int i = 1; i < count; i++) {
+            final Animation animation = active[i];
+            int j = i;
+            for (; j > 0 && active[j - 1].compareTo(animation) > 0; j--)
+                active[j] = active[j - 1];
+            active[j] = animation;
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            final Animation animation = active[i];
+            if (!(animation instanceof GameOver))
+                animation.terminate();
+            if (!force && animation instanceof GameOver)
+                active[kept++] = animation;
+            else
+                size.decrementAndGet();
+        }
+        compact(kept);
+        dirty = 0L;
+    }
+
+    private void compact(final int kept) {
+        for (int i = kept; i < count; i++)
+            active[i] = null;
+        count = kept;
+    }
+
+    static long pack(final int x, final int y, final int right, final int bottom) {
+        return (long) Math.max(0, x) << 48 | (long) Math.max(0, y) << 32 | (long) right << 16 | bottom;
+    }
+}
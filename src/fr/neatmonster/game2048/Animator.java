@@ -24,118 +24,170 @@
 package fr.neatmonster.game2048;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 class Animator extends Thread {
-    private final Game2048 game;
-    private final List<Animation> animations = new ArrayList<Animation>();
-    private       long            current    = 0L;
-    private       boolean         freeze     = false;
-    private       long            start      = 0L;
-    private       boolean         wasPlaying = false;
+    final            Timeline        timeline    = new Timeline();
+    private final    Game2048        game;
+    private final    AnimationQueue  normal      = new AnimationQueue();
+    private final    AnimationQueue  special     = new AnimationQueue();
+    private final    AtomicLong      added       = new AtomicLong();
+    private final    long            frame       = frameInterval();
+    private volatile long            current     = 0L;
+    private volatile boolean         freeze      = false;
+    private volatile boolean         idle        = false;
+    private volatile long            start       = 0L;
+    private          long            second      = 0L;
+    private          boolean         wasPlaying  = false;
+    private          long            dirty       = 0L;
 
     public Animator(final Game2048 game) {
         this.game = game;
     }
 
+    private static long frameInterval() {
+        int rate = DisplayMode.REFRESH_RATE_UNKNOWN;
+        if (!GraphicsEnvironment.isHeadless())
+            rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        return TimeUnit.SECONDS.toNanos(1L) / (rate == DisplayMode.REFRESH_RATE_UNKNOWN ? 60 : rate);
+    }
+
     public void reset() {
         freeze = false;
-        start = current = System.currentTimeMillis();
-        game.scoreboard.logTime(start);
+        start = current = timeline.now();
+        game.scoreboard.logTime(timeline.toWallClock(start));
+        wake();
+    }
+
+    public void resume(final long elapsed) {
+        freeze = false;
+        current = timeline.now();
+        start = current - elapsed;
+        game.scoreboard.logTime(timeline.toWallClock(current));
+        wake();
+    }
+
+    public long pauseTime() {
+        return freeze ? -1L : timeline.toWallClock(timeline.now());
+    }
+
+    public void wake() {
+        LockSupport.unpark(this);
     }
 
     public long elapsed() {
-        return (freeze ? current : System.currentTimeMillis()) - start;
+        return (freeze ? current : timeline.now()) - start;
     }
 
     public void paint(final Graphics2D g) {
-        synchronized (animations) {
-            for (final Animation animation : new ArrayList<Animation>(animations)) {
-                if (!animation.isSpecial()) {
-                    animation.paint(g);
-                    if (animation.hasTerminated())
-                        animations.remove(animation);
-                }
-            }
-        }
+        final long start = System.nanoTime();
+        normal.paint(g, timeline.now());
+        Metrics.INSTANCE.animations(System.nanoTime() - start);
     }
 
     public void specialPaint(final Graphics2D g) {
-        synchronized (animations) {
-            for (final Animation animation : new ArrayList<Animation>(animations)) {
-                if (animation.isSpecial()) {
-                    animation.paint(g);
-                    if (animation.hasTerminated())
-                        animations.remove(animation);
-                }
-            }
-        }
+        final long start = System.nanoTime();
+        special.paint(g, timeline.now());
+        Metrics.INSTANCE.animations(System.nanoTime() - start);
     }
 
     public void unfreeze() {
+        final long now = timeline.now();
         freeze = false;
-        start += System.currentTimeMillis() - current;
-        game.scoreboard.logTime(System.currentTimeMillis());
+        start += now - current;
+        game.scoreboard.logTime(timeline.toWallClock(now));
+        wake();
     }
 
     @Override
     public void run() {
         while (true) {
-            if (!freeze && System.currentTimeMillis() - current >= 1000L) {
-                game.repaint();
-                current += 1000L;
+            if (!freeze && elapsed() / 1000L != second) {
+                second = elapsed() / 1000L;
+                game.repaint(game.layout.footerBounds);
             }
+            if (game.username.isBlinking())
+                game.username.repaint();
             if (isPlaying() || game.username.isBlinking()) {
                 wasPlaying = true;
-                game.repaint();
-            } else if (wasPlaying) {
+                repaintAnimations();
+                LockSupport.parkNanos(this, frame);
+                continue;
+            }
+            if (wasPlaying) {
+                repaintAnimations();
                 if (game.gameOver == null && game.isBlocked()) {
                     game.gameOver = new GameOver(game);
                     add(game.gameOver);
-                    current = System.currentTimeMillis();
+                    current = timeline.now();
                     freeze = true;
-                    game.scoreboard.logTime(current);
+                    game.scoreboard.logTime(timeline.toWallClock(current));
                 } else if (game.gameWon == null && game.hasWon()) {
-                    game.gameWon = new GameWon();
+                    game.gameWon = new GameWon(game.layout);
                     add(game.gameWon);
-                    current = System.currentTimeMillis();
+                    current = timeline.now();
                     freeze = true;
-                    game.scoreboard.logTime(current);
+                    game.scoreboard.logTime(timeline.toWallClock(current));
                 }
                 wasPlaying = false;
+                if (isPlaying())
+                    continue;
             }
-            try {
-                Thread.sleep(1L);
-            } catch (final InterruptedException ignored) {
-            }
+            idle = true;
+            if (isPlaying())
+                idle = false;
+            else if (freeze)
+                LockSupport.park(this);
+            else
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos((second + 1L) * 1000L - elapsed()));
+            idle = false;
         }
     }
 
+    private void repaintAnimations() {
+        repaint(dirty);
+        dirty = union(union(normal.getDirty(), special.getDirty()), added.getAndSet(0L));
+        repaint(dirty);
+    }
+
+    private void repaint(final long dirty) {
+        if (dirty == 0L)
+            return;
+        final int x = (int) (dirty >>> 48), y = (int) (dirty >>> 32) & 0xffff;
+        game.repaint(x, y, ((int) dirty >>> 16) - x, ((int) dirty & 0xffff) - y);
+    }
+
+    private static long union(final long a, final long b) {
+        if (a == 0L || b == 0L)
+            return a | b;
+        return Math.min(a >>> 48, b >>> 48) << 48 | Math.min(a >>> 32 & 0xffff, b >>> 32 & 0xffff) << 32
+                | Math.max(a >>> 16 & 0xffff, b >>> 16 & 0xffff) << 16 | Math.max(a & 0xffff, b & 0xffff);
+    }
+
     public boolean isPlaying() {
-        synchronized (animations) {
-            return !animations.isEmpty();
-        }
+        return !normal.isEmpty() || !special.isEmpty();
+    }
+
+    public int getQueueDepth() {
+        return normal.size() + special.size();
     }
 
     public void add(final Animation animation) {
-        synchronized (animations) {
-            animations.add(animation);
-        }
+        animation.start(timeline.now());
+        (animation.isSpecial() ? special : normal).add(animation);
+        final long bounds = AnimationQueue.pack(animation.getBounds());
+        long previous;
+        do {
+            previous = added.get();
+        } while (!added.compareAndSet(previous, union(previous, bounds)));
+        if (idle)
+            wake();
     }
 
     public void terminate(final boolean force) {
-        synchronized (animations) {
-            final List<Animation> sortedAnimations = new ArrayList<Animation>(animations);
-            Collections.sort(sortedAnimations);
-            for (final Animation animation : sortedAnimations)
-                if (!(animation instanceof GameOver)) {
-                    animation.terminate();
-                    animations.remove(animation);
-                }
-            if (force)
-                animations.clear();
-        }
+        normal.terminate(force);
+        special.terminate(force);
     }
 }
@@ -31,12 +31,13 @@ public class Appear extends Animation {
     private final int       delay;
 
     public Appear(final Tile tile, final TileValue value, final int delay) {
-        super(50 + delay);
+        super(100 + delay);
         this.tile = tile;
         this.value = value;
         this.delay = delay;
         tile.setValue(TileValue.TILE_EMPTY);
         tile.setFutureValue(value);
+        bounds = tile.getBounds();
     }
 
     @Override
@@ -50,6 +51,6 @@ public class Appear extends Animation {
         if (current < delay)
             return;
         final float percentage = (float) (current - delay) / (float) (duration - delay);
-        value.paintAlpha(g, tile.getScreenX(), tile.getScreenY(), (int) (percentage * 255));
+        value.paintAlpha(g, tile.getScreenX(), tile.getScreenY(), tile.getSize(), (int) (percentage * 255));
     }
 }
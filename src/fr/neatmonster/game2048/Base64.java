@@ -53,4 +53,35 @@ class Base64 {
             buffer.append("=");
         return buffer.toString();
     }
+
+    public static byte[] decode(final String data) {
+        int length = data.length();
+        while (length > 0 && data.charAt(length - 1) == '=')
+            length--;
+        final byte[] result = new byte[length * 3 / 4];
+        int b = 0, bits = 0, j = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = data.charAt(i);
+            final int v;
+            if (c >= 'A' && c <= 'Z')
+                v = c - 'A';
+            else if (c >= 'a' && c <= 'z')
+                v = c - 'a' + 26;
+            else if (c >= '0' && c <= '9')
+                v = c - '0' + 52;
+            else if (c == '+')
+                v = 62;
+            else if (c == '/')
+                v = 63;
+            else
+                throw new IllegalArgumentException("Invalid Base64 character " + c);
+            b = (b << 6 | v) & 0xFFFFFF;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                result[j++] = (byte) (b >> bits);
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,304 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class Benchmark {
+    private static final long[] BOARDS  = positions(false);
+    private static final long[] CROWDED = positions(true);
+    private static final long[] ROWS    = new long[4];
+    private static volatile long sink;
+
+    private final String                             filter;
+    private final List<Case>                         cases   = new ArrayList<Case>();
+    private final com.sun.management.ThreadMXBean    threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public Benchmark(final String filter) {
+        this.filter = filter;
+    }
+
+    public static void main(final String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        final Benchmark benchmark = new Benchmark(args.length > 0 ? args[0] : "");
+        benchmark.addDefaults();
+        benchmark.run();
+        System.exit(0);
+    }
+
+    public void add(final Case benchmark) {
+        if (benchmark.name.contains(filter))
+            cases.add(benchmark);
+    }
+
+    void addDefaults() {
+        final Game2048 game = new Game2048(Grid.CLASSIC, false);
+        final Random random = new SplitRandom(2048L);
+        final String[] names = {"moveUp", "moveDown", "moveLeft", "moveRight"};
+        final Grid grid = Grid.of(8, 8);
+        final long[][] positions = positions(grid);
+        final long[] into = grid.create();
+        for (int i = 0; i < 4; i++) {
+            final int direction = Board.UP + i;
+            add(new Case("Game2048." + names[i]) {
+
+                @Override
+                long run(final long board) {
+                    load(game, board);
+                    final int delay;
+                    if (direction == Board.UP)
+                        delay = game.moveUp();
+                    else if (direction == Board.DOWN)
+                        delay = game.moveDown();
+                    else if (direction == Board.LEFT)
+                        delay = game.moveLeft();
+                    else
+                        delay = game.moveRight();
+                    game.animator.terminate(true);
+                    game.scoreboard.reset();
+                    return delay;
+                }
+            });
+            add(new Case("Board.move(" + names[i].substring(4).toUpperCase() + ")") {
+
+                @Override
+                long run(final long board) {
+                    return Board.move(board, direction);
+                }
+            });
+            add(new Case("Grid(8x8).move(" + names[i].substring(4).toUpperCase() + ")") {
+
+                @Override
+                long run(final long board) {
+                    return grid.move(positions[count++ & 0xff], direction, into);
+                }
+            });
+        }
+        add(new Case("Grid(8x8).isBlocked") {
+
+            @Override
+            long run(final long board) {
+                return grid.isBlocked(positions[count++ & 0xff]) ? 1L : 0L;
+            }
+        });
+        final MoveBatch batch = new MoveBatch(BOARDS.length);
+        final long[][] results = new long[4][BOARDS.length];
+        final int[][] scores = new int[4][BOARDS.length];
+        final boolean[][] changed = new boolean[4][BOARDS.length];
+        add(new Case("Board.move[256]x4") {
+
+            @Override
+            long run(final long board) {
+                for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+                    for (int i = 0; i < BOARDS.length; i++) {
+                        results[direction - 1][i] = Board.move(BOARDS[i], direction);
+                        scores[direction - 1][i] = Board.score(BOARDS[i], direction);
+                        changed[direction - 1][i] = results[direction - 1][i] != BOARDS[i];
+                    }
+                return results[0][count++ & 0xff];
+            }
+        });
+        add(new Case("MoveBatch.evaluate[256]") {
+
+            @Override
+            long run(final long board) {
+                batch.evaluate(BOARDS, 0, BOARDS.length);
+                return batch.getResults(Board.UP)[count++ & 0xff];
+            }
+        });
+        add(new Case("Game2048.isBlocked", CROWDED) {
+
+            @Override
+            long run(final long board) {
+                load(game, board);
+                return game.isBlocked() ? 1L : 0L;
+            }
+        });
+        add(new Case("Board.isBlocked", CROWDED) {
+
+            @Override
+            long run(final long board) {
+                return Board.isBlocked(board) ? 1L : 0L;
+            }
+        });
+        add(new Case("Game2048.emptyTiles") {
+
+            @Override
+            long run(final long board) {
+                load(game, board);
+                return game.emptyTiles().size();
+            }
+        });
+        add(new Case("Game2048.insertRandomTile") {
+
+            @Override
+            long run(final long board) {
+                load(game, board);
+                game.insertRandomTile(0);
+                game.animator.terminate(true);
+                game.scoreboard.reset();
+                return 0L;
+            }
+        });
+        add(new Case("Board.spawn") {
+
+            @Override
+            long run(final long board) {
+                return Board.spawn(board, random);
+            }
+        });
+        add(new Case("TileValue.next") {
+
+            @Override
+            long run(final long board) {
+                return TileValue.of((int) (board & 7) + 1).next().ordinal();
+            }
+        });
+        final Scoreboard scoreboard = new Scoreboard();
+        final Tile tile = new Tile(1, 2, game.layout);
+        add(new Case("Scoreboard.logAdd") {
+
+            @Override
+            long run(final long board) {
+                scoreboard.logAdd(tile, TileValue.TILE_2);
+                if ((++count & 0xfff) == 0)
+                    scoreboard.reset();
+                return 0L;
+            }
+        });
+        add(new Case("Scoreboard.logTime") {
+
+            @Override
+            long run(final long board) {
+                scoreboard.logTime(board);
+                if ((++count & 0xfff) == 0)
+                    scoreboard.reset();
+                return 0L;
+            }
+        });
+        final byte[] log = new byte[4096];
+        random.nextBytes(log);
+        add(new Case("Base64.encode(4096)") {
+
+            @Override
+            long run(final long board) {
+                return Base64.encode(log).length();
+            }
+        });
+    }
+
+    private static long[] positions(final boolean crowded) {
+        final Random random = new SplitRandom(crowded ? 4096L : 2048L);
+        final long[] positions = new long[256];
+        long board = 0L;
+        for (int i = 0; i < positions.length; ) {
+            if (Board.isBlocked(board))
+                board = Board.spawn(Board.spawn(0L, random), random);
+            board = Board.spawn(Board.move(board, Strategy.GREEDY.choose(board, random)), random);
+            if (!crowded || Board.emptyCells(board) == 0)
+                positions[i++] = board;
+        }
+        return positions;
+    }
+
+    private static long[][] positions(final Grid grid) {
+        final Random random = new SplitRandom(8192L);
+        final long[][] positions = new long[256][];
+        long[] rows = grid.create(), moved = grid.create();
+        for (int i = 0; i < positions.length; ) {
+            if (grid.isBlocked(rows) || grid.emptyCells(rows) == grid.getCells()) {
+                rows = grid.create();
+                grid.spawn(rows, random);
+                grid.spawn(rows, random);
+            }
+            if (grid.move(rows, Board.UP + random.nextInt(4), moved) >= 0) {
+                final long[] swap = rows;
+                rows = moved;
+                moved = swap;
+                grid.spawn(rows, random);
+                if (random.nextInt(64) == 0)
+                    positions[i++] = rows.clone();
+            }
+        }
+        return positions;
+    }
+
+    static void load(final Game2048 game, final long board) {
+        for (int y = 0; y < 4; y++)
+            ROWS[y] = board >>> 16 * y & 0xffff;
+        game.load(ROWS);
+    }
+
+    public void run() {
+        System.out.println(String.format("%-28s %14s %14s %12s", "Benchmark", "ns/op", "ops/s", "bytes/op"));
+        for (final Case benchmark : cases) {
+            measure(benchmark, 5, 200L);
+            final long[] result = measure(benchmark, 5, 500L);
+            final double nanos = (double) result[1] / result[0];
+            System.out.println(String.format("%-28s %14.2f %14.0f %12.1f", benchmark.name, nanos, 1e9 / nanos,
+                    (double) result[2] / result[0]));
+        }
+    }
+
+    private long[] measure(final Case benchmark, final int iterations, final long millis) {
+        final long thread = Thread.currentThread().getId();
+        long operations = 0L, duration = 0L, allocated = 0L, result = 0L;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            final long bytes = threads.getThreadAllocatedBytes(thread);
+            final long start = System.nanoTime(), end = start + millis * 1000000L;
+            long now, count = 0L;
+            do {
+                for (int i = 0; i < 1024; i++)
+                    result += benchmark.run(benchmark.boards[(int) count++ & 0xff]);
+                now = System.nanoTime();
+            } while (now < end);
+            allocated += threads.getThreadAllocatedBytes(thread) - bytes;
+            duration += now - start;
+            operations += count;
+        }
+        sink = result;
+        return new long[]{operations, duration, allocated};
+    }
+
+    public abstract static class Case {
+        final String name;
+        final long[] boards;
+        int          count = 0;
+
+        protected Case(final String name) {
+            this(name, BOARDS);
+        }
+
+        protected Case(final String name, final long[] boards) {
+            this.name = name;
+            this.boards = boards;
+        }
+
+        abstract long run(long board);
+    }
+}
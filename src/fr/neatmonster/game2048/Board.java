@@ -0,0 +1,196 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.util.Random;
+
+public final class Board {
+    public static final int UP    = 1;
+    public static final int DOWN  = 2;
+    public static final int LEFT  = 3;
+    public static final int RIGHT = 4;
+
+    private static final char[] LEFT_ROWS  = new char[65536];
+    private static final char[] RIGHT_ROWS = new char[65536];
+    private static final int[]  SCORES     = new int[65536];
+
+    static {
+        final RowTables tables = RowTables.get();
+        if (tables != null) {
+            tables.left(LEFT_ROWS);
+            tables.right(RIGHT_ROWS);
+            tables.scores(SCORES);
+        } else
+            compute();
+    }
+
+    private Board() {
+    }
+
+    private static void compute() {
+        for (int row = 0; row < 65536; row++) {
+            int result = 0, score = 0, target = 0, last = 0;
+            for (int x = 0; x < 4; x++) {
+                final int cell = row >> 4 * x & 0xf;
+                if (cell == 0)
+                    continue;
+                if (cell == last && cell < Grid.MAX_EXPONENT) {
+                    result += 1 << 4 * (target - 1);
+                    score += 2 << cell;
+                    last = 0;
+                } else {
+                    result |= cell << 4 * target++;
+                    last = cell;
+                }
+            }
+            LEFT_ROWS[row] = (char) result;
+            RIGHT_ROWS[reverse(row)] = (char) reverse(result);
+            SCORES[row] = score;
+        }
+    }
+
+    private static int reverse(final int row) {
+        return (row & 0xf) << 12 | (row & 0xf0) << 4 | (row & 0xf00) >> 4 | (row & 0xf000) >> 12;
+    }
+
+    public static long transpose(final long board) {
+        final long a1 = board & 0xf0f00f0ff0f00f0fL;
+        final long a2 = board & 0x0000f0f00000f0f0L;
+        final long a3 = board & 0x0f0f00000f0f0000L;
+        final long a = a1 | a2 << 12 | a3 >>> 12;
+        final long b1 = a & 0xff00ff0000ff00ffL;
+        final long b2 = a & 0x00ff00ff00000000L;
+        final long b3 = a & 0x00000000ff00ff00L;
+        return b1 | b2 >>> 24 | b3 << 24;
+    }
+
+    public static long move(final long board, final int direction) {
+        switch (direction) {
+            case UP:
+                return transpose(slide(transpose(board), LEFT_ROWS));
+            case DOWN:
+                return transpose(slide(transpose(board), RIGHT_ROWS));
+            case LEFT:
+                return slide(board, LEFT_ROWS);
+            case RIGHT:
+                return slide(board, RIGHT_ROWS);
+            default:
+                throw new IllegalArgumentException("Unknown direction " + direction);
+        }
+    }
+
+    public static int score(final long board, final int direction) {
+        final long rows = direction == UP || direction == DOWN ? transpose(board) : board;
+        return SCORES[(int) rows & 0xffff] + SCORES[(int) (rows >>> 16) & 0xffff]
+                + SCORES[(int) (rows >>> 32) & 0xffff] + SCORES[(int) (rows >>> 48) & 0xffff];
+    }
+
+    static int left(final int row) {
+        return LEFT_ROWS[row];
+    }
+
+    static int right(final int row) {
+        return RIGHT_ROWS[row];
+    }
+
+    static int rowScore(final int row) {
+        return SCORES[row];
+    }
+
+    private static long slide(final long board, final char[] rows) {
+        return rows[(int) board & 0xffff]
+                | (long) rows[(int) (board >>> 16) & 0xffff] << 16
+                | (long) rows[(int) (board >>> 32) & 0xffff] << 32
+                | (long) rows[(int) (board >>> 48) & 0xffff] << 48;
+    }
+
+    public static int get(final long board, final int cell) {
+        return (int) (board >>> 4 * cell) & 0xf;
+    }
+
+    public static long set(final long board, final int cell, final int exponent) {
+        return board & ~(0xfL << 4 * cell) | (long) exponent << 4 * cell;
+    }
+
+    public static int cell(final int direction, final int line, final int position) {
+        switch (direction) {
+            case UP:
+                return line + position * 4;
+            case DOWN:
+                return line + (3 - position) * 4;
+            case LEFT:
+                return position + line * 4;
+            default:
+                return 3 - position + line * 4;
+        }
+    }
+
+    public static int motion(final int line) {
+        int motion = 0, target = 0, last = 0;
+        for (int position = 0; position < 4; position++) {
+            final int cell = line >> 4 * position & 0xf;
+            if (cell == 0)
+                continue;
+            if (cell == last && cell < Grid.MAX_EXPONENT) {
+                motion |= (target - 1 | 4) << 3 * position;
+                last = 0;
+            } else {
+                motion |= target++ << 3 * position;
+                last = cell;
+            }
+        }
+        return motion;
+    }
+
+    public static int emptyCells(long board) {
+        board |= board >>> 2 & 0x3333333333333333L;
+        board |= board >>> 1;
+        return 16 - Long.bitCount(board & 0x1111111111111111L);
+    }
+
+    public static boolean isBlocked(final long board) {
+        if (emptyCells(board) > 0)
+            return false;
+        return move(board, LEFT) == board && move(board, UP) == board;
+    }
+
+    public static long spawn(final long board, final Random random) {
+        final int empty = emptyCells(board);
+        if (empty == 0)
+            return board;
+        int index = random.nextInt(empty);
+        final int exponent = random.nextFloat() < 0.9f ? 1 : 2;
+        for (int cell = 0; cell < 16; cell++)
+            if (get(board, cell) == 0 && index-- == 0)
+                return set(board, cell, exponent);
+        return board;
+    }
+
+    public static int maxTile(final long board) {
+        int max = 0;
+        for (int cell = 0; cell < 16; cell++)
+            max = Math.max(max, get(board, cell));
+        return max;
+    }
+}
@@ -32,8 +32,9 @@ import java.awt.event.MouseEvent;
 import java.awt.geom.RoundRectangle2D;
 
 public class Button extends JButton {
-    private Shape shape      = null;
-    private float percentage = 0f;
+    private Shape   shape      = null;
+    private float   percentage = 0f;
+    private boolean submitting = false;
 
     public Button(final Game2048 game) {
         super("Go");
@@ -44,17 +45,47 @@ public class Button extends JButton {
 
             @Override
             public void mousePressed(final MouseEvent e) {
-                if (e.getButton() != MouseEvent.BUTTON1 || game.animator.isPlaying())
+                if (e.getButton() != MouseEvent.BUTTON1 || game.animator.isPlaying() || submitting)
                     return;
                 final String username = game.username.getText();
                 if (username.length() < 3 || username.length() > 20) {
                     game.username.blink();
                 } else {
-                    final String message = game.scoreboard.send(username);
-                    if (message == null)
-                        game.gameOver.reverse();
-                    else
-                        game.animator.add(new Error());
+                    final GameOver gameOver = game.gameOver;
+                    submitting = true;
+                    game.scoreboard.send(username, new Submitter.Callback() {
+
+                        @Override
+                        public void submitted() {
+                            SwingUtilities.invokeLater(new Runnable() {
+
+                                @Override
+                                public void run() {
+                                    submitting = false;
+                                    if (game.gameOver == gameOver)
+                                        gameOver.reverse();
+                                }
+                            });
+                        }
+
+                        @Override
+                        public void queued() {
+                            submitted();
+                        }
+
+                        @Override
+                        public void failed(final String message) {
+                            SwingUtilities.invokeLater(new Runnable() {
+
+                                @Override
+                                public void run() {
+                                    submitting = false;
+                                    if (game.gameOver == gameOver)
+                                        game.animator.add(new Error(game.layout));
+                                }
+                            });
+                        }
+                    });
                 }
             }
         });
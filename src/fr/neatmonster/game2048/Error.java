@@ -26,9 +26,12 @@ package fr.neatmonster.game2048;
 import java.awt.*;
 
 public class Error extends Animation {
+    private final int offset;
 
-    public Error() {
-        super(300, true);
+    public Error(final Layout layout) {
+        super(600, true);
+        offset = layout.getOverlayOffset();
+        bounds = new Rectangle(360, offset + 270, 80, 190);
     }
 
     @Override
@@ -36,6 +39,6 @@ public class Error extends Animation {
         super.paint(g);
         g.setColor(new Color(255, 0, 0, (int) ((1f - getPercentage()) * 255f)));
         g.setFont(Game2048.FONT.deriveFont(18f));
-        g.drawString("Error", 369, 446 - (int) (getPercentage() * 150f));
+        g.drawString("Error", 369, offset + 446 - (int) (getPercentage() * 150f));
     }
 }
@@ -30,15 +30,17 @@ public class Fusion extends Animation {
     private final TileValue value;
 
     public Fusion(final Tile tile, final TileValue value) {
-        super(100);
+        super(200);
         this.tile = tile;
         this.value = value;
+        bounds = tile.getBounds();
+        bounds.grow(tile.getSize() * 4 / 35, tile.getSize() * 4 / 35);
     }
 
     @Override
     public void paint(final Graphics2D g) {
         super.paint(g);
-        final int delay = 50;
+        final int delay = 100;
         if (current < delay)
             return;
         tile.setFutureValue(value);
@@ -48,8 +50,8 @@ public class Fusion extends Animation {
             size = percentage * 2.4f;
         else
             size = 1f + (1f - percentage) * 0.4f;
-        final int width = (int) (size * 105);
-        value.paintSize(g, tile.getScreenX(), tile.getScreenY(), width);
+        final int width = (int) (size * tile.getSize());
+        value.paintSize(g, tile.getScreenX(), tile.getScreenY(), tile.getSize(), width);
     }
 
     @Override
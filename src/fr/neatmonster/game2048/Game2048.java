@@ -23,54 +23,86 @@
  */
 package fr.neatmonster.game2048;
 
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.geom.Rectangle2D;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.Future;
 
 public class Game2048 extends JPanel {
-    private static final Random random          = new Random();
     private static final Color  BACKGROUND      = new Color(0xfaf8ef);
-    private static final Color  GRID_BACKGROUND = new Color(0xbbada0);
-    private static final Color  FOOTER_COLOR    = new Color(0xbbac99);
-    private static final Color  HEADER_COLOR    = new Color(0xf9f6f2);
-    private static final Color  TEXT_COLOR      = new Color(0xeee4da);
-    private static final Color  LOGO_COLOR      = new Color(0x776e65);
-    public static Font FONT;
-
-    static {
-        try {
-            FONT = Font.createFont(Font.TRUETYPE_FONT, Game2048.class.getResourceAsStream("/ClearSans-Bold.ttf"));
-        } catch (final Exception e) {
-            e.printStackTrace();
-        }
-    }
+    private static final int    SAVE_PERIOD     = 30000;
+    public static volatile Font FONT            = new Font(Font.SANS_SERIF, Font.BOLD, 1);
 
-    public final  TextField  username   = new TextField(this);
-    public final  Button     validate   = new Button(this);
-    public final  Scoreboard scoreboard = new Scoreboard();
-    public final  Animator   animator   = new Animator(this);
-    private final Tile[]     board      = new Tile[16];
-    public        GameOver   gameOver   = null;
-    public        GameWon    gameWon    = null;
-    public        int        scoreX     = 0;
-    private       int        best       = 0;
-    private       int        moves      = 0;
-    private       int        score      = 0;
+    public final  TextField   username    = new TextField(this);
+    public final  Button      validate    = new Button(this);
+    public final  Scoreboard  scoreboard;
+    public final  Animator    animator    = new Animator(this);
+    final         Grid        grid;
+    final         Layout      layout;
+    private final Tile[]      board;
+    private final SplitRandom random      = new SplitRandom();
+    private final History     history;
+    private final long[]      rows;
+    private final long[]      previous;
+    private final long[]      moved;
+    private final long[]      packed;
+    private final long[]      key;
+    private final int[]       targets     = new int[16];
+    public        GameOver    gameOver    = null;
+    public        GameWon     gameWon     = null;
+    private       int         best        = 0;
+    private       int         moves       = 0;
+    private       int         score       = 0;
+    private       LogBuffer   savedLog    = null;
+    private       int         savedLength = 0;
+    private       boolean     painted     = false;
 
     public Game2048() {
+        this(Grid.CLASSIC);
+    }
+
+    public Game2048(final Grid grid) {
+        this(grid, false);
+    }
+
+    public Game2048(final Grid grid, final boolean persistent) {
+        this.grid = grid;
+        scoreboard = persistent ? new Scoreboard(grid) : new Scoreboard(grid, null);
+        layout = new Layout(grid);
+        board = new Tile[grid.getCells()];
+        history = new History(grid.getWords());
+        rows = grid.create();
+        previous = grid.create();
+        moved = grid.create();
+        packed = new long[grid.getWords()];
+        key = new long[grid.getWords()];
         setLayout(null);
-        animator.start();
-        for (int x = 0; x < 4; x++)
-            for (int y = 0; y < 4; y++)
-                board[x + y * 4] = new Tile(x, y);
-        reset();
+        setPreferredSize(new Dimension(Layout.WIDTH, layout.height));
+        for (int x = 0; x < grid.getWidth(); x++)
+            for (int y = 0; y < grid.getHeight(); y++)
+                board[x + y * grid.getWidth()] = new Tile(x, y, layout);
+        if (!persistent || !restore())
+            reset();
+        if (persistent)
+            new Timer(SAVE_PERIOD, new ActionListener() {
+
+                @Override
+                public void actionPerformed(final ActionEvent e) {
+                    if (scoreboard.getLog() != savedLog || savedLog.size() != savedLength)
+                        save();
+                }
+            }).start();
         setFocusable(true);
         addMouseListener(new MouseAdapter() {
 
@@ -85,31 +117,37 @@ public class Game2048 extends JPanel {
             @Override
             public void keyPressed(final KeyEvent e) {
                 final int key = e.getKeyCode();
+                final boolean control = e.isControlDown() || e.isMetaDown();
+                final boolean undo = control && key == KeyEvent.VK_Z, redo = control && key == KeyEvent.VK_Y;
                 if (animator.isPlaying() && gameOver == null && (gameWon == null || gameWon.hasTerminated())
-                        && (key == 27 || key >= 37 && key <= 40))
+                        && (key == 27 || key >= 37 && key <= 40 || undo || redo))
                     animator.terminate(false);
                 else if (animator.isPlaying())
                     return;
                 if (e.getKeyCode() == KeyEvent.VK_ESCAPE)
                     reset();
+                if (undo) {
+                    undo();
+                    return;
+                }
                 if (gameOver != null || isBlocked())
                     return;
-                final int delay;
+                final int redone = redo ? history.redo() : 0;
+                final int direction;
                 if (e.getKeyCode() == KeyEvent.VK_UP)
-                    delay = moveUp();
+                    direction = Board.UP;
                 else if (e.getKeyCode() == KeyEvent.VK_DOWN)
-                    delay = moveDown();
+                    direction = Board.DOWN;
                 else if (e.getKeyCode() == KeyEvent.VK_LEFT)
-                    delay = moveLeft();
+                    direction = Board.LEFT;
                 else if (e.getKeyCode() == KeyEvent.VK_RIGHT)
-                    delay = moveRight();
+                    direction = Board.RIGHT;
+                else if (redone != 0)
+                    direction = redone;
                 else
                     return;
-                if (gameWon != null && gameWon.isVisible()) {
-                    animator.unfreeze();
-                    gameWon.hide();
-                }
-                moves++;
+                Metrics.INSTANCE.keyPressed();
+                final int delay = play(direction);
                 if (delay > 0)
                     insertRandomTile(delay);
             }
@@ -117,20 +155,107 @@ public class Game2048 extends JPanel {
     }
 
     public static void main(final String[] args) {
-        final Game2048 game = new Game2048();
-        game.setPreferredSize(new Dimension(539, 691));
-        final JFrame frame = new JFrame();
-        frame.setTitle("2048");
-        frame.setResizable(false);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setIconImage(new ImageIcon(Game2048.class.getResource("/icon.png")).getImage());
-        frame.add(game);
-        frame.pack();
-        frame.setLocationRelativeTo(null);
-        frame.setVisible(true);
+        Startup.mark("main");
+        final Grid grid = args.length > 0 ? Grid.parse(args[0]) : Grid.CLASSIC;
+        SwingUtilities.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+                final Game2048 game = new Game2048(grid, true);
+                Startup.mark("game created");
+                final JFrame frame = new JFrame();
+                frame.setTitle("2048");
+                frame.setResizable(false);
+                frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                frame.addWindowListener(new WindowAdapter() {
+
+                    @Override
+                    public void windowClosing(final WindowEvent e) {
+                        try {
+                            game.save().get();
+                        } catch (final Exception ex) {
+                            ex.printStackTrace();
+                        }
+                    }
+                });
+                frame.add(game);
+                frame.pack();
+                frame.setLocationRelativeTo(null);
+                frame.setVisible(true);
+                Startup.mark("frame visible");
+                loadAssets(game, frame);
+                Metrics.register(game);
+            }
+        });
+    }
+
+    public static void loadAssets(final Game2048 game, final Frame frame) {
+        final Thread loader = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                final Font font = loadFont();
+                if (font != null)
+                    Startup.mark("font loaded");
+                Image icon = null;
+                if (frame != null)
+                    try {
+                        icon = ImageIO.read(Game2048.class.getResource("/icon.png"));
+                        Startup.mark("icon loaded");
+                    } catch (final Exception e) {
+                        e.printStackTrace();
+                    }
+                final Image loadedIcon = icon;
+                SwingUtilities.invokeLater(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        if (font != null)
+                            game.setGameFont(font);
+                        if (frame != null && loadedIcon != null)
+                            frame.setIconImage(loadedIcon);
+                        Startup.mark("assets ready");
+                    }
+                });
+            }
+        }, "Assets");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    static Font loadFont() {
+        try {
+            return Font.createFont(Font.TRUETYPE_FONT, Game2048.class.getResourceAsStream("/ClearSans-Bold.ttf"));
+        } catch (final Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    void setGameFont(final Font font) {
+        FONT = font;
+        TileValue.flush();
+        layout.flush();
+        username.setFont(font.deriveFont(18f));
+        validate.setFont(font.deriveFont(20f));
+        repaint();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (animator.getState() == Thread.State.NEW)
+            animator.start();
     }
 
     void reset() {
+        clear();
+        insertRandomTile(0);
+        insertRandomTile(0);
+        repaint();
+    }
+
+    void clear() {
         if (score > best)
             best = score;
         moves = score = 0;
@@ -138,18 +263,65 @@ public class Game2048 extends JPanel {
         remove(username);
         remove(validate);
         scoreboard.reset();
+        random.setSeed(random.nextLong());
+        scoreboard.logSeed(random.getSeed());
         gameWon = null;
         animator.reset();
         animator.terminate(true);
         for (final Tile tile : board)
             tile.setValue(TileValue.TILE_EMPTY);
-        insertRandomTile(0);
-        insertRandomTile(0);
-        repaint();
+        Arrays.fill(rows, 0L);
+        history.clear();
+    }
+
+    private boolean restore() {
+        final Snapshot snapshot = Snapshot.read(Snapshot.file(grid));
+        if (snapshot == null)
+            return false;
+        best = snapshot.getBest();
+        if (snapshot.getGrid().getWidth() != grid.getWidth() || snapshot.getGrid().getHeight() != grid.getHeight())
+            return false;
+        grid.unpack(snapshot.getBoard(), 0, previous);
+        if (grid.emptyCells(previous) == grid.getCells() || grid.isBlocked(previous))
+            return false;
+        score = snapshot.getScore();
+        moves = snapshot.getMoves();
+        load(previous);
+        random.setSeed(snapshot.getSeed());
+        random.setState(snapshot.getState());
+        scoreboard.restore(snapshot.getLog());
+        if (snapshot.hasWon()) {
+            gameWon = new GameWon(layout);
+            gameWon.hide();
+            gameWon.current = gameWon.duration;
+        }
+        animator.resume(snapshot.getElapsed());
+        return true;
+    }
+
+    public Future<?> save() {
+        final Snapshot snapshot;
+        if (gameOver != null || isBlocked())
+            snapshot = new Snapshot(grid, Math.max(best, score));
+        else {
+            final long[] board = new long[grid.getWords()];
+            grid.pack(rows, board, 0);
+            snapshot = new Snapshot(grid, board, score, best, moves, animator.elapsed(), gameWon != null,
+                    random.getSeed(), random.getState(), scoreboard.getLog(), animator.pauseTime());
+        }
+        savedLog = scoreboard.getLog();
+        savedLength = savedLog.size();
+        return Snapshot.save(snapshot);
     }
 
     Tile getTile(final int x, final int y) {
-        return board[x + y * 4];
+        return board[x + y * grid.getWidth()];
+    }
+
+    void load(final long[] rows) {
+        System.arraycopy(rows, 0, this.rows, 0, rows.length);
+        for (int cell = 0; cell < board.length; cell++)
+            board[cell].setValue(TileValue.of(grid.get(rows, cell)));
     }
 
     public boolean hasWon() {
@@ -160,145 +332,131 @@ public class Game2048 extends JPanel {
     }
 
     public boolean isBlocked() {
-        if (emptyTiles().size() > 0)
-            return false;
-        for (int x = 0; x < 3; x++)
-            for (int y = 0; y < 4; y++)
-                if (getTile(x, y).getValue() == getTile(x + 1, y).getValue())
-                    return false;
-        for (int x = 0; x < 4; x++)
-            for (int y = 0; y < 3; y++)
-                if (getTile(x, y).getValue() == getTile(x, y + 1).getValue())
-                    return false;
-        return true;
+        return grid.isBlocked(rows);
+    }
+
+    public boolean isCapped() {
+        return grid.isCapped(rows);
     }
 
     int moveUp() {
-        scoreboard.logMove((byte) 1);
-        int scoreInc = 0, yLimit, delay = 0;
-        for (int x = 0; x < 4; x++) {
-            yLimit = 0;
-            for (int y = 1; y < 4; y++) {
-                final Tile tile = getTile(x, y);
-                if (tile.getValue() == TileValue.TILE_EMPTY)
-                    continue;
-                int yEmpty = y;
-                while (yEmpty > yLimit && getTile(x, yEmpty - 1).getFutureValue() == TileValue.TILE_EMPTY)
-                    yEmpty--;
-                if (yEmpty > yLimit && getTile(x, yEmpty - 1).getFutureValue() == tile.getValue()) {
-                    animator.add(new Move(tile, getTile(x, yEmpty - 1)));
-                    animator.add(new Fusion(getTile(x, yEmpty - 1), getTile(x, yEmpty - 1).getFutureValue().next()));
-                    score += getTile(x, yEmpty - 1).getFutureValue().next().getValue();
-                    scoreInc += getTile(x, yEmpty - 1).getFutureValue().next().getValue();
-                    if (score > best)
-                        best = score;
-                    delay = 100;
-                    yLimit = yEmpty;
-                } else if (yEmpty < y) {
-                    animator.add(new Move(getTile(x, y), getTile(x, yEmpty)));
-                    delay = delay < 50 ? 50 : delay;
-                }
-            }
-        }
-        if (scoreInc > 0)
-            animator.add(new Score(this, scoreInc));
-        return delay;
+        return move(Board.UP);
     }
 
     int moveDown() {
-        scoreboard.logMove((byte) 2);
-        int scoreInc = 0, yLimit, delay = 0;
-        for (int x = 0; x < 4; x++) {
-            yLimit = 3;
-            for (int y = 2; y >= 0; y--) {
-                final Tile tile = getTile(x, y);
-                if (tile.getValue() == TileValue.TILE_EMPTY)
-                    continue;
-                int yEmpty = y;
-                while (yEmpty < yLimit && getTile(x, yEmpty + 1).getFutureValue() == TileValue.TILE_EMPTY)
-                    yEmpty++;
-                if (yEmpty < yLimit && getTile(x, yEmpty + 1).getFutureValue() == tile.getValue()) {
-                    animator.add(new Move(tile, getTile(x, yEmpty + 1)));
-                    animator.add(new Fusion(getTile(x, yEmpty + 1), getTile(x, yEmpty + 1).getFutureValue().next()));
-                    score += getTile(x, yEmpty + 1).getFutureValue().next().getValue();
-                    scoreInc += getTile(x, yEmpty + 1).getFutureValue().next().getValue();
-                    if (score > best)
-                        best = score;
-                    delay = 100;
-                    yLimit = yEmpty;
-                } else if (yEmpty > y) {
-                    animator.add(new Move(getTile(x, y), getTile(x, yEmpty)));
-                    delay = delay < 50 ? 50 : delay;
-                }
-            }
+        return move(Board.DOWN);
+    }
+
+    int moveLeft() {
+        return move(Board.LEFT);
+    }
+
+    int moveRight() {
+        return move(Board.RIGHT);
+    }
+
+    int play(final int direction) {
+        final long start = System.nanoTime();
+        final int delay = move(direction);
+        Metrics.INSTANCE.moved(System.nanoTime() - start);
+        if (gameWon != null && gameWon.isVisible()) {
+            animator.unfreeze();
+            gameWon.hide();
+            repaint(layout.gridBounds);
         }
-        if (scoreInc > 0)
-            animator.add(new Score(this, scoreInc));
+        moves++;
+        repaint(Layout.HEADER);
+        repaint(layout.footerBounds);
         return delay;
     }
 
-    int moveLeft() {
-        scoreboard.logMove((byte) 3);
-        int scoreInc = 0, xLimit, delay = 0;
-        for (int y = 0; y < 4; y++) {
-            xLimit = 0;
-            for (int x = 1; x < 4; x++) {
-                final Tile tile = getTile(x, y);
-                if (tile.getValue() == TileValue.TILE_EMPTY)
+    private int move(final int direction) {
+        scoreboard.logMove((byte) direction);
+        final int scoreInc = grid.move(rows, direction, moved);
+        if (scoreInc < 0)
+            return 0;
+        grid.pack(rows, packed, 0);
+        history.push(packed, 0, score, random.getState(), moves, direction);
+        int delay = 100;
+        for (int line = 0; line < grid.lines(direction); line++) {
+            grid.motion(rows, direction, line, targets);
+            for (int position = 1; position < grid.length(direction); position++) {
+                final int target = targets[position];
+                if (target < 0)
                     continue;
-                int xEmpty = x;
-                while (xEmpty > xLimit && getTile(xEmpty - 1, y).getFutureValue() == TileValue.TILE_EMPTY)
-                    xEmpty--;
-                if (xEmpty > xLimit && getTile(xEmpty - 1, y).getFutureValue() == tile.getValue()) {
-                    animator.add(new Move(tile, getTile(xEmpty - 1, y)));
-                    animator.add(new Fusion(getTile(xEmpty - 1, y), getTile(xEmpty - 1, y).getFutureValue().next()));
-                    score += getTile(xEmpty - 1, y).getFutureValue().next().getValue();
-                    scoreInc += getTile(xEmpty - 1, y).getFutureValue().next().getValue();
-                    if (score > best)
-                        best = score;
-                    delay = 100;
-                    xLimit = xEmpty;
-                } else if (xEmpty < x) {
-                    animator.add(new Move(getTile(x, y), getTile(xEmpty, y)));
-                    delay = delay < 50 ? 50 : delay;
+                final int cell = grid.cell(direction, line, target & ~Grid.MERGED);
+                final Tile src = board[grid.cell(direction, line, position)];
+                final Tile dst = board[cell];
+                if ((target & Grid.MERGED) != 0) {
+                    animator.add(new Move(src, dst));
+                    animator.add(new Fusion(dst, TileValue.of(grid.get(moved, cell))));
+                    delay = 200;
+                } else if (target != position) {
+                    animator.add(new Move(src, dst));
                 }
             }
         }
-        if (scoreInc > 0)
+        System.arraycopy(moved, 0, rows, 0, rows.length);
+        if (scoreInc > 0) {
+            score += scoreInc;
+            if (score > best)
+                best = score;
             animator.add(new Score(this, scoreInc));
+        }
         return delay;
     }
 
-    int moveRight() {
-        scoreboard.logMove((byte) 4);
-        int scoreInc = 0, xLimit, delay = 0;
-        for (int y = 0; y < 4; y++) {
-            xLimit = 3;
-            for (int x = 2; x >= 0; x--) {
-                final Tile tile = getTile(x, y);
-                if (tile.getValue() == TileValue.TILE_EMPTY)
+    void undo() {
+        if (!history.undo())
+            return;
+        if (gameOver != null) {
+            gameOver = null;
+            remove(username);
+            remove(validate);
+            animator.terminate(true);
+            animator.unfreeze();
+        } else if (gameWon != null && gameWon.isVisible()) {
+            animator.unfreeze();
+            gameWon.hide();
+        }
+        scoreboard.logUndo();
+        history.getBoard(packed, 0);
+        grid.unpack(packed, 0, previous);
+        final int direction = history.getDirection();
+        grid.move(previous, direction, moved);
+        for (final Tile tile : board)
+            tile.setValue(TileValue.TILE_EMPTY);
+        for (int cell = 0; cell < board.length; cell++)
+            if (grid.get(moved, cell) == 0 && grid.get(rows, cell) != 0)
+                animator.add(new Vanish(board[cell], TileValue.of(grid.get(rows, cell))));
+        for (int line = 0; line < grid.lines(direction); line++) {
+            grid.motion(previous, direction, line, targets);
+            for (int position = 0; position < grid.length(direction); position++) {
+                final int target = targets[position];
+                if (target < 0)
                     continue;
-                int xEmpty = x;
-                while (xEmpty < xLimit && getTile(xEmpty + 1, y).getFutureValue() == TileValue.TILE_EMPTY)
-                    xEmpty++;
-                if (xEmpty < xLimit && getTile(xEmpty + 1, y).getFutureValue() == tile.getValue()) {
-                    animator.add(new Move(tile, getTile(xEmpty + 1, y)));
-                    animator.add(new Fusion(getTile(xEmpty + 1, y), getTile(xEmpty + 1, y).getFutureValue().next()));
-                    score += getTile(xEmpty + 1, y).getFutureValue().next().getValue();
-                    scoreInc += getTile(xEmpty + 1, y).getFutureValue().next().getValue();
-                    if (score > best)
-                        best = score;
-                    delay = 100;
-                    xLimit = xEmpty;
-                } else if (xEmpty > x) {
-                    animator.add(new Move(getTile(x, y), getTile(xEmpty, y)));
-                    delay = delay < 50 ? 50 : delay;
+                final Tile tile = board[grid.cell(direction, line, position)];
+                final TileValue value = TileValue.of(grid.get(previous, grid.cell(direction, line, position)));
+                if (target == position) {
+                    tile.setValue(value);
+                } else {
+                    tile.setFutureValue(value);
+                    animator.add(new Move(board[grid.cell(direction, line, target & ~Grid.MERGED)], tile, value));
                 }
             }
         }
-        if (scoreInc > 0)
-            animator.add(new Score(this, scoreInc));
-        return delay;
+        System.arraycopy(previous, 0, rows, 0, rows.length);
+        score = history.getScore();
+        moves = history.getMoves();
+        random.setState(history.getState());
+        repaint();
+    }
+
+    long[] pack() {
+        Arrays.fill(key, 0L);
+        for (int cell = 0; cell < board.length; cell++)
+            key[cell >> 4] |= (long) board[cell].getValue().ordinal() << 4 * (cell & 15);
+        return key;
     }
 
     List<Tile> emptyTiles() {
@@ -314,85 +472,46 @@ public class Game2048 extends JPanel {
         if (tiles.size() > 0) {
             final Tile tile = tiles.get(random.nextInt(tiles.size()));
             final TileValue value = random.nextFloat() < 0.9f ? TileValue.TILE_2 : TileValue.TILE_4;
-            animator.add(new Appear(tile, value, delay));
-            scoreboard.logAdd(tile, value);
+            insertTile(tile, value, delay);
         }
     }
 
+    void insertTile(final Tile tile, final TileValue value, final int delay) {
+        animator.add(new Appear(tile, value, delay));
+        scoreboard.logAdd(tile, value);
+        grid.set(rows, tile.getX() + tile.getY() * grid.getWidth(), value.ordinal());
+    }
+
     @Override
     public void paint(final Graphics g_) {
+        final long allocated = Metrics.INSTANCE.allocated();
         super.paint(g_);
         final Graphics2D g = (Graphics2D) g_;
         animator.specialPaint(g);
+        Metrics.INSTANCE.painted(allocated);
     }
 
-
     @Override
     public void paintComponent(final Graphics g_) {
+        final long start = System.nanoTime();
         super.paintComponent(g_);
         final Graphics2D g = (Graphics2D) g_;
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
         g.setColor(BACKGROUND);
-        g.fillRect(0, 0, 539, 691);
-        g.setColor(LOGO_COLOR);
-        Font font = FONT.deriveFont(80f);
-        g.setFont(font);
-        g.drawString("2048", 22, 95);
-        final String best = Integer.toString(this.best);
-        font = FONT.deriveFont(this.best > 99999 ? 28f : this.best > 9999 ? 34f : 40f);
-        Rectangle2D bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), best).getVisualBounds();
-        final int bestWidth = Math.max(85, 32 + (int) bounds.getWidth());
-        g.setColor(GRID_BACKGROUND);
-        g.fillRoundRect(517 - bestWidth, 22, bestWidth, 92, 6, 6);
-        g.setColor(HEADER_COLOR);
-        font = FONT.deriveFont(23f);
-        g.setFont(font);
-        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), "BEST").getVisualBounds();
-        g.drawString("BEST", 516 - (int) bounds.getWidth() - (int) ((bestWidth - bounds.getWidth()) / 2f), 54);
-        g.setColor(TEXT_COLOR);
-        font = FONT.deriveFont(this.best > 99999 ? 28f : this.best > 9999 ? 34f : 40f);
-        g.setFont(font);
-        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), best).getVisualBounds();
-        int offset = best.startsWith("1") ? 4 : 0;
-        g.drawString(best, 515 - offset - (int) bounds.getWidth() - (int) ((bestWidth - bounds.getWidth()) / 2f),
-                98 - (this.best > 99999 ? 4 : this.best > 9999 ? 2 : 0));
-        final String score = Integer.toString(this.score);
-        font = FONT.deriveFont(this.score > 99999 ? 28f : this.score > 9999 ? 34f : 40f);
-        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), score).getVisualBounds();
-        final int scoreWidth = Math.max(102, 32 + (int) bounds.getWidth());
-        g.setColor(GRID_BACKGROUND);
-        g.fillRoundRect(517 - bestWidth - 16 - scoreWidth, 22, scoreWidth, 92, 6, 6);
-        g.setColor(HEADER_COLOR);
-        font = FONT.deriveFont(23f);
-        g.setFont(font);
-        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), "SCORE").getVisualBounds();
-        g.drawString("SCORE", 516 - bestWidth - 16 - (int) bounds.getWidth() - (int) ((scoreWidth - bounds.getWidth()) / 2f), 54);
-        g.setColor(TEXT_COLOR);
-        font = FONT.deriveFont(this.score > 99999 ? 28f : this.score > 9999 ? 34f : 40f);
-        g.setFont(font);
-        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), score).getVisualBounds();
-        offset = score.startsWith("1") ? 4 : 0;
-        scoreX = 515 - bestWidth - 16 - offset - (int) ((scoreWidth - bounds.getWidth()) / 2f);
-        g.drawString(score, scoreX - (int) bounds.getWidth(), 98 - (this.score > 99999 ? 4 : this.score > 9999 ? 2 : 0));
-        g.setColor(GRID_BACKGROUND);
-        g.fillRoundRect(22, 136, 495, 495, 6, 6);
-        for (final Tile tile : board)
-            tile.paint(g);
+        g.fillRect(0, Layout.HEADER_HEIGHT, Layout.WIDTH, layout.height - Layout.HEADER_HEIGHT - Layout.FOOTER_HEIGHT);
+        layout.paintHeader(g, score, best);
+        layout.paintBoard(g, board, pack());
+        layout.paintFooter(g, layout.footerBounds.y, moves, animator.elapsed());
         animator.paint(g);
-        g.setColor(FOOTER_COLOR);
-        font = FONT.deriveFont(23f);
-        g.setFont(font);
-        g.drawString(moves + " moves", 22, 669);
-        final long millis = animator.elapsed();
-        final int minutes = (int) (millis / 60000L);
-        final int seconds = (int) ((millis - minutes * 60000L) / 1000L);
-        final String time = String.format(minutes + ":%02d", seconds);
-        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), time).getVisualBounds();
-        g.drawString(time, 515 - (int) bounds.getWidth(), 669);
         if (gameOver != null && gameOver.hasTerminated())
             gameOver.forcePaint(g);
         else if (gameWon != null && gameWon.hasTerminated())
             gameWon.forcePaint(g);
+        if (!painted) {
+            painted = true;
+            Startup.mark("first frame");
+        }
+        Metrics.INSTANCE.paintComponent(System.nanoTime() - start);
     }
 }
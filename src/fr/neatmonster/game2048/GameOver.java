@@ -26,12 +26,18 @@ package fr.neatmonster.game2048;
 import java.awt.*;
 
 public class GameOver extends Animation {
+    private static final String SUBMIT = "Submit your score to the leaderboard";
+    private static final String CAPPED = "32768 is the largest tile, they cannot merge";
+
     private final Game2048 game;
-    private boolean reverse = false;
+    private final String   subtitle;
+    private       boolean  reverse  = false;
 
     public GameOver(final Game2048 game) {
-        super(300);
+        super(600);
         this.game = game;
+        subtitle = game.isCapped() ? CAPPED : SUBMIT;
+        bounds = game.layout.gridBounds;
     }
 
     @Override
@@ -42,65 +48,70 @@ public class GameOver extends Animation {
 
     public void reverse() {
         reverse = true;
-        current = 0;
-        duration = 200;
+        duration = 400;
         game.animator.add(this);
     }
 
     public void forcePaint(final Graphics2D g) {
+        final Rectangle grid = game.layout.gridBounds;
+        final int dy = game.layout.getOverlayOffset();
         if (reverse) {
-            if (current < 200) {
-                final float percentage = (float) current / 200f;
+            if (current < 400) {
+                final float percentage = (float) current / 400f;
                 g.setColor(new Color(238, 228, 218, 186));
-                g.fillRect(22, 136, 495, 495);
+                g.fillRect(grid.x, grid.y, grid.width, grid.height);
                 g.setColor(new Color(119, 110, 101, 255));
                 g.setFont(Game2048.FONT.deriveFont(60f));
-                g.drawString("Game over!", 112, 350 + (int) (percentage * 54f));
+                g.drawString("Game over!", 112, dy + 350 + (int) (percentage * 54f));
                 g.setFont(Game2048.FONT.deriveFont(18f));
                 g.setColor(new Color(119, 110, 101, 255 - (int) (percentage * 255)));
-                g.drawString("Submit your score to the leaderboard", 114, 402 + (int) (percentage * 54f));
-                game.username.setBounds(119, 418 + (int) (percentage * 54f), 230, 40);
+                g.drawString(subtitle, subtitleX(g), dy + 402 + (int) (percentage * 54f));
+                game.username.setBounds(119, dy + 418 + (int) (percentage * 54f), 230, 40);
                 game.username.setPercentage(1f - percentage);
-                game.validate.setBounds(359, 418 + (int) (percentage * 54f), 62, 40);
+                game.validate.setBounds(359, dy + 418 + (int) (percentage * 54f), 62, 40);
                 game.validate.setPercentage(1f - percentage);
             } else {
                 g.setColor(new Color(238, 228, 218, 186));
-                g.fillRect(22, 136, 495, 495);
+                g.fillRect(grid.x, grid.y, grid.width, grid.height);
                 g.setColor(new Color(119, 110, 101, 255));
                 g.setFont(Game2048.FONT.deriveFont(60f));
-                g.drawString("Game over!", 112, 404);
+                g.drawString("Game over!", 112, dy + 404);
                 if (game.getComponents().length > 0) {
                     game.remove(game.username);
                     game.remove(game.validate);
                 }
             }
         } else {
-            if (current < 100) {
-                final float percentage = (float) current / 100f;
+            if (current < 200) {
+                final float percentage = (float) current / 200f;
                 g.setColor(new Color(238, 228, 218, (int) (percentage * 186f)));
-                g.fillRect(22, 136, 495, 495);
+                g.fillRect(grid.x, grid.y, grid.width, grid.height);
                 g.setColor(new Color(119, 110, 101, (int) (percentage * 255f)));
                 g.setFont(Game2048.FONT.deriveFont(60f));
-                g.drawString("Game over!", 112, 404);
+                g.drawString("Game over!", 112, dy + 404);
             } else {
-                final float percentage = (float) (current - 100) / 200f;
+                final float percentage = (float) (current - 200) / 400f;
                 g.setColor(new Color(238, 228, 218, 186));
-                g.fillRect(22, 136, 495, 495);
+                g.fillRect(grid.x, grid.y, grid.width, grid.height);
                 g.setColor(new Color(119, 110, 101, 255));
                 g.setFont(Game2048.FONT.deriveFont(60f));
-                g.drawString("Game over!", 112, 404 - (int) (percentage * 54f));
+                g.drawString("Game over!", 112, dy + 404 - (int) (percentage * 54f));
                 g.setColor(new Color(119, 110, 101, (int) (percentage * 255)));
                 g.setFont(Game2048.FONT.deriveFont(18f));
-                g.drawString("Submit your score to the leaderboard", 114, 456 - (int) (percentage * 54f));
+                g.drawString(subtitle, subtitleX(g), dy + 456 - (int) (percentage * 54f));
                 if (game.getComponents().length == 0) {
                     game.add(game.username);
                     game.add(game.validate);
                 }
-                game.username.setBounds(119, 472 - (int) (percentage * 54f), 230, 40);
+                game.username.setBounds(119, dy + 472 - (int) (percentage * 54f), 230, 40);
                 game.username.setPercentage(percentage);
-                game.validate.setBounds(359, 472 - (int) (percentage * 54f), 62, 40);
+                game.validate.setBounds(359, dy + 472 - (int) (percentage * 54f), 62, 40);
                 game.validate.setPercentage(percentage);
             }
         }
     }
+
+    private int subtitleX(final Graphics2D g) {
+        return (Layout.WIDTH - g.getFontMetrics().stringWidth(subtitle)) / 2;
+    }
 }
@@ -26,10 +26,13 @@ package fr.neatmonster.game2048;
 import java.awt.*;
 
 public class GameWon extends Animation {
-    private boolean hidden = false;
+    private final Layout  layout;
+    private       boolean hidden = false;
 
-    public GameWon() {
-        super(100);
+    public GameWon(final Layout layout) {
+        super(200);
+        this.layout = layout;
+        bounds = layout.gridBounds;
     }
 
     public void hide() {
@@ -48,11 +51,12 @@ public class GameWon extends Animation {
 
     public void forcePaint(final Graphics2D g) {
         if (!hidden) {
+            final Rectangle grid = layout.gridBounds;
             g.setColor(new Color(237, 194, 46, (int) (getPercentage() * 128f)));
-            g.fillRect(22, 136, 495, 495);
+            g.fillRect(grid.x, grid.y, grid.width, grid.height);
             g.setColor(new Color(249, 246, 242, (int) (getPercentage() * 255f)));
             g.setFont(Game2048.FONT.deriveFont(60f));
-            g.drawString("You win!", 155, 404);
+            g.drawString("You win!", 155, layout.getOverlayOffset() + 404);
         }
     }
 }
@@ -0,0 +1,319 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.util.Random;
+
+public class Grid {
+    // Cells are 4-bit exponents, so 32768 is the largest tile: two of them never merge,
+    // and a full board whose only pairs are 32768 tiles is blocked.
+    public static final  int   MAX_EXPONENT = 15;
+    public static final  int   MERGED       = 0x100;
+    private static final int[] CHUNKS       = new int[65536];
+
+    static {
+        for (int row = 0; row < 65536; row++) {
+            int result = 0, tiles = 0, last = 0, pending = 0, merges = 0;
+            for (int x = 0; x < 4; x++) {
+                final int cell = row >> 4 * x & 0xf;
+                if (cell == 0)
+                    continue;
+                if (cell == last && cell < MAX_EXPONENT) {
+                    result += 1 << 4 * (tiles - 1);
+                    merges = merges << 4 | cell + 1;
+                    last = pending = 0;
+                } else {
+                    result |= cell << 4 * tiles++;
+                    last = cell;
+                    pending = cell < MAX_EXPONENT ? 1 : 0;
+                }
+            }
+            CHUNKS[row] = result | tiles << 16 | pending << 19 | merges << 20;
+        }
+    }
+
+    public static final Grid CLASSIC = new Grid(4, 4);
+
+    private final int  width;
+    private final int  height;
+    private final int  words;
+    private final long rowMask;
+
+    public Grid(final int width, final int height) {
+        if (width < 2 || width > 16 || height < 2 || height > 16)
+            throw new IllegalArgumentException("Unsupported size " + width + "x" + height);
+        this.width = width;
+        this.height = height;
+        words = (width * height + 15) / 16;
+        rowMask = width == 16 ? -1L : (1L << 4 * width) - 1L;
+    }
+
+    public static Grid parse(final String size) {
+        final int separator = size.indexOf('x');
+        if (separator < 0)
+            throw new IllegalArgumentException("Expected WIDTHxHEIGHT, got " + size);
+        return of(Integer.parseInt(size.substring(0, separator)), Integer.parseInt(size.substring(separator + 1)));
+    }
+
+    public static Grid of(final int width, final int height) {
+        return width == 4 && height == 4 ? CLASSIC : new Grid(width, height);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCells() {
+        return width * height;
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    public boolean isClassic() {
+        return width == 4 && height == 4;
+    }
+
+    public long[] create() {
+        return new long[height];
+    }
+
+    public int get(final long[] rows, final int cell) {
+        return (int) (rows[cell / width] >>> 4 * (cell % width)) & 0xf;
+    }
+
+    public void set(final long[] rows, final int cell, final int exponent) {
+        final int shift = 4 * (cell % width);
+        final int y = cell / width;
+        rows[y] = rows[y] & ~(0xfL << shift) | (long) exponent << shift;
+    }
+
+    public int lines(final int direction) {
+        return direction == Board.UP || direction == Board.DOWN ? width : height;
+    }
+
+    public int length(final int direction) {
+        return direction == Board.UP || direction == Board.DOWN ? height : width;
+    }
+
+    public int cell(final int direction, final int line, final int position) {
+        switch (direction) {
+            case Board.UP:
+                return line + position * width;
+            case Board.DOWN:
+                return line + (height - 1 - position) * width;
+            case Board.LEFT:
+                return position + line * width;
+            default:
+                return width - 1 - position + line * width;
+        }
+    }
+
+    public int move(final long[] rows, final int direction, final long[] into) {
+        if (isClassic()) {
+            final long board = rows[0] | rows[1] << 16 | rows[2] << 32 | rows[3] << 48;
+            final long moved = Board.move(board, direction);
+            for (int y = 0; y < 4; y++)
+                into[y] = moved >>> 16 * y & 0xffff;
+            return moved == board ? -1 : Board.score(board, direction);
+        }
+        int score = 0;
+        boolean changed = false;
+        final boolean vertical = direction == Board.UP || direction == Board.DOWN;
+        final boolean reverse = direction == Board.DOWN || direction == Board.RIGHT;
+        final int lines = vertical ? width : height, pad = 4 * (16 - (vertical ? height : width));
+        if (vertical)
+            for (int y = 0; y < height; y++)
+                into[y] = 0L;
+        for (int index = 0; index < lines; index++) {
+            long line = 0L;
+            if (vertical)
+                for (int y = 0; y < height; y++)
+                    line |= (rows[y] >>> 4 * index & 0xf) << 4 * y;
+            else
+                line = rows[index];
+            if (reverse)
+                line = reverse(line) >>> pad;
+            long moved = 0L;
+            int shift = 0, pending = 0;
+            for (long rest = line; rest != 0L; rest >>>= 16) {
+                int chunk = (int) rest & 0xffff;
+                if (chunk == 0)
+                    continue;
+                if (pending != 0) {
+                    final int first = Integer.numberOfTrailingZeros(chunk) & ~3;
+                    if ((chunk >>> first & 0xf) == pending) {
+                        moved |= (long) (pending + 1) << shift;
+                        score += 2 << pending;
+                        chunk >>>= first + 4;
+                    } else {
+                        moved |= (long) pending << shift;
+                    }
+                    shift += 4;
+                    pending = 0;
+                }
+                final int slid = CHUNKS[chunk], count = slid >>> 16 & 7;
+                score += (1 << (slid >>> 20 & 0xf) & ~1) + (1 << (slid >>> 24) & ~1);
+                if ((slid & 1 << 19) != 0) {
+                    moved |= (long) (slid & (1 << 4 * (count - 1)) - 1) << shift;
+                    shift += 4 * (count - 1);
+                    pending = slid >>> 4 * (count - 1) & 0xf;
+                } else {
+                    moved |= (long) (slid & 0xffff) << shift;
+                    shift += 4 * count;
+                }
+            }
+            if (pending != 0)
+                moved |= (long) pending << shift;
+            changed |= moved != line;
+            if (reverse)
+                moved = reverse(moved) >>> pad;
+            if (vertical)
+                for (int y = 0; y < height; y++)
+                    into[y] |= (moved >>> 4 * y & 0xf) << 4 * index;
+            else
+                into[index] = moved;
+        }
+        return changed ? score : -1;
+    }
+
+    private static long reverse(long line) {
+        line = Long.reverseBytes(line);
+        return (line & 0x0f0f0f0f0f0f0f0fL) << 4 | line >>> 4 & 0x0f0f0f0f0f0f0f0fL;
+    }
+
+    public void motion(final long[] rows, final int direction, final int line, final int[] targets) {
+        final int length = length(direction);
+        int target = 0, last = 0;
+        for (int position = 0; position < length; position++) {
+            final int cell = get(rows, cell(direction, line, position));
+            if (cell == 0) {
+                targets[position] = -1;
+            } else if (cell == last && cell < MAX_EXPONENT) {
+                targets[position] = target - 1 | MERGED;
+                last = 0;
+            } else {
+                targets[position] = target++;
+                last = cell;
+            }
+        }
+    }
+
+    public int emptyCells(final long[] rows) {
+        int empty = 0;
+        for (int y = 0; y < height; y++)
+            empty += emptyCells(rows[y]);
+        return empty;
+    }
+
+    private int emptyCells(long row) {
+        row |= ~rowMask;
+        row |= row >>> 2 & 0x3333333333333333L;
+        row |= row >>> 1;
+        return 16 - Long.bitCount(row & 0x1111111111111111L);
+    }
+
+    public boolean isBlocked(final long[] rows) {
+        if (emptyCells(rows) > 0)
+            return false;
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++) {
+                final int cell = (int) (rows[y] >>> 4 * x) & 0xf;
+                if (cell == MAX_EXPONENT)
+                    continue;
+                if (x + 1 < width && cell == ((int) (rows[y] >>> 4 * (x + 1)) & 0xf))
+                    return false;
+                if (y + 1 < height && cell == ((int) (rows[y + 1] >>> 4 * x) & 0xf))
+                    return false;
+            }
+        return true;
+    }
+
+    public boolean isCapped(final long[] rows) {
+        if (!isBlocked(rows))
+            return false;
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++) {
+                if (get(rows, x + y * width) != MAX_EXPONENT)
+                    continue;
+                if (x + 1 < width && get(rows, x + 1 + y * width) == MAX_EXPONENT)
+                    return true;
+                if (y + 1 < height && get(rows, x + (y + 1) * width) == MAX_EXPONENT)
+                    return true;
+            }
+        return false;
+    }
+
+    public int spawn(final long[] rows, final Random random) {
+        final int empty = emptyCells(rows);
+        if (empty == 0)
+            return -1;
+        int index = random.nextInt(empty);
+        final int exponent = random.nextFloat() < 0.9f ? 1 : 2;
+        for (int y = 0; y < height; y++) {
+            final int count = emptyCells(rows[y]);
+            if (index >= count) {
+                index -= count;
+                continue;
+            }
+            for (int x = 0; x < width; x++)
+                if ((rows[y] >>> 4 * x & 0xf) == 0 && index-- == 0) {
+                    rows[y] |= (long) exponent << 4 * x;
+                    return x + y * width;
+                }
+        }
+        return -1;
+    }
+
+    public int maxTile(final long[] rows) {
+        int max = 0;
+        for (int cell = 0; cell < width * height; cell++)
+            max = Math.max(max, get(rows, cell));
+        return max;
+    }
+
+    public void pack(final long[] rows, final long[] packed, final int offset) {
+        for (int word = 0; word < words; word++)
+            packed[offset + word] = 0L;
+        for (int cell = 0; cell < width * height; cell++)
+            packed[offset + cell / 16] |= (long) get(rows, cell) << 4 * (cell % 16);
+    }
+
+    public void unpack(final long[] packed, final int offset, final long[] rows) {
+        for (int y = 0; y < height; y++)
+            rows[y] = 0L;
+        for (int cell = 0; cell < width * height; cell++)
+            set(rows, cell, (int) (packed[offset + cell / 16] >>> 4 * (cell % 16)) & 0xf);
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height;
+    }
+}
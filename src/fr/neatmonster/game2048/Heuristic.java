@@ -0,0 +1,89 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+public final class Heuristic {
+    static final float LOST_PENALTY       = 200000f;
+    static final float MONOTONICITY_POWER = 4f;
+    static final float MONOTONICITY       = 47f;
+    static final float SUM_POWER          = 3.5f;
+    static final float SUM                = 11f;
+    static final float MERGES             = 700f;
+    static final float EMPTY              = 270f;
+
+    private static final float[] ROWS = new float[65536];
+
+    static {
+        final RowTables tables = RowTables.get();
+        if (tables != null)
+            tables.heuristic(ROWS);
+        else
+            for (int row = 0; row < 65536; row++)
+                ROWS[row] = evaluate(row);
+    }
+
+    private Heuristic() {
+    }
+
+    static float evaluate(final int row) {
+        final int[] cells = {row & 0xf, row >> 4 & 0xf, row >> 8 & 0xf, row >> 12 & 0xf};
+        float sum = 0f;
+        int empty = 0, merges = 0, previous = 0, counter = 0;
+        for (final int cell : cells) {
+            sum += (float) Math.pow(cell, SUM_POWER);
+            if (cell == 0) {
+                empty++;
+            } else {
+                if (previous == cell) {
+                    counter++;
+                } else if (counter > 0) {
+                    merges += 1 + counter;
+                    counter = 0;
+                }
+                previous = cell;
+            }
+        }
+        if (counter > 0)
+            merges += 1 + counter;
+        float left = 0f, right = 0f;
+        for (int i = 1; i < 4; i++) {
+            final float a = (float) Math.pow(cells[i - 1], MONOTONICITY_POWER);
+            final float b = (float) Math.pow(cells[i], MONOTONICITY_POWER);
+            if (cells[i - 1] > cells[i])
+                left += a - b;
+            else
+                right += b - a;
+        }
+        return LOST_PENALTY + EMPTY * empty + MERGES * merges - MONOTONICITY * Math.min(left, right) - SUM * sum;
+    }
+
+    public static float score(final long board) {
+        return rows(board) + rows(Board.transpose(board));
+    }
+
+    private static float rows(final long board) {
+        return ROWS[(int) board & 0xffff] + ROWS[(int) (board >>> 16) & 0xffff]
+                + ROWS[(int) (board >>> 32) & 0xffff] + ROWS[(int) (board >>> 48) & 0xffff];
+    }
+}
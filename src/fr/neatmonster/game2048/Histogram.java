@@ -0,0 +1,129 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class Histogram {
+    private static final int BITS = 4;
+    private static final int SUB  = 1 << BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray((64 - BITS) * SUB);
+    private final AtomicLong      sum     = new AtomicLong();
+    private final AtomicLong      max     = new AtomicLong();
+
+    static int bucket(final long value) {
+        if (value < SUB)
+            return (int) value;
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        return (exponent - BITS + 1) * SUB + (int) (value >>> exponent - BITS) - SUB;
+    }
+
+    static long lower(final int bucket) {
+        if (bucket < SUB)
+            return bucket;
+        return (long) (bucket % SUB + SUB) << bucket / SUB - 1;
+    }
+
+    static long width(final int bucket) {
+        return bucket < SUB ? 1L : 1L << bucket / SUB - 1;
+    }
+
+    public void record(final long value) {
+        if (value < 0L)
+            return;
+        buckets.incrementAndGet(bucket(value));
+        sum.addAndGet(value);
+        long previous;
+        while (value > (previous = max.get()) && !max.compareAndSet(previous, value))
+            ;
+    }
+
+    public void clear() {
+        for (int bucket = 0; bucket < buckets.length(); bucket++)
+            buckets.set(bucket, 0L);
+        sum.set(0L);
+        max.set(0L);
+    }
+
+    public Snapshot snapshot() {
+        final long[] counts = new long[buckets.length()];
+        long total = 0L;
+        for (int bucket = 0; bucket < counts.length; bucket++)
+            total += counts[bucket] = buckets.get(bucket);
+        return new Snapshot(counts, total, sum.get(), max.get());
+    }
+
+    public static final class Snapshot {
+        private final long[] buckets;
+        private final long   count;
+        private final long   sum;
+        private final long   max;
+
+        Snapshot(final long[] buckets, final long count, final long sum, final long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return count == 0L ? 0.0 : (double) sum / count;
+        }
+
+        public long getP50() {
+            return percentile(0.5);
+        }
+
+        public long getP90() {
+            return percentile(0.9);
+        }
+
+        public long getP99() {
+            return percentile(0.99);
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        private long percentile(final double fraction) {
+            final long rank = Math.max(1L, (long) Math.ceil(fraction * count));
+            long seen = 0L;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                if (seen + buckets[bucket] >= rank) {
+                    final double within = (rank - seen - 0.5) / buckets[bucket];
+                    return Math.min(max, lower(bucket) + (long) (within * width(bucket)));
+                }
+                seen += buckets[bucket];
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+public class History {
+    private final int    words;
+    private       long[] boards;
+    private       long[] states     = new long[64];
+    private       int[]  scores     = new int[64];
+    private       int[]  moves      = new int[64];
+    private       byte[] directions = new byte[64];
+    private       int    size       = 0;
+    private       int    limit      = 0;
+
+    public History() {
+        this(1);
+    }
+
+    public History(final int words) {
+        this.words = words;
+        boards = new long[64 * words];
+    }
+
+    public void push(final long board, final int score, final long state, final int moves, final int direction) {
+        if (size < limit && boards[size] == board && states[size] == state && directions[size] == direction) {
+            size++;
+            return;
+        }
+        if (size == directions.length)
+            grow(size * 2);
+        boards[size] = board;
+        record(score, state, moves, direction);
+    }
+
+    public void push(final long[] board, final int offset, final int score, final long state, final int moves,
+                     final int direction) {
+        if (size < limit && states[size] == state && directions[size] == direction && matches(board, offset)) {
+            size++;
+            return;
+        }
+        if (size == directions.length)
+            grow(size * 2);
+        System.arraycopy(board, offset, boards, size * words, words);
+        record(score, state, moves, direction);
+    }
+
+    private boolean matches(final long[] board, final int offset) {
+        for (int word = 0; word < words; word++)
+            if (boards[size * words + word] != board[offset + word])
+                return false;
+        return true;
+    }
+
+    private void record(final int score, final long state, final int moves, final int direction) {
+        states[size] = state;
+        scores[size] = score;
+        this.moves[size] = moves;
+        directions[size] = (byte) direction;
+        limit = ++size;
+    }
+
+    private void grow(final int capacity) {
+        final long[] boards = new long[capacity * words];
+        final long[] states = new long[capacity];
+        final int[] scores = new int[capacity];
+        final int[] moves = new int[capacity];
+        final byte[] directions = new byte[capacity];
+        System.arraycopy(this.boards, 0, boards, 0, limit * words);
+        System.arraycopy(this.states, 0, states, 0, limit);
+        System.arraycopy(this.scores, 0, scores, 0, limit);
+        System.arraycopy(this.moves, 0, moves, 0, limit);
+        System.arraycopy(this.directions, 0, directions, 0, limit);
+        this.boards = boards;
+        this.states = states;
+        this.scores = scores;
+        this.moves = moves;
+        this.directions = directions;
+    }
+
+    public boolean undo() {
+        if (size == 0)
+            return false;
+        size--;
+        return true;
+    }
+
+    public int redo() {
+        return size < limit ? directions[size] : 0;
+    }
+
+    public void clear() {
+        size = limit = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getBoard() {
+        return boards[size * words];
+    }
+
+    public void getBoard(final long[] into, final int offset) {
+        System.arraycopy(boards, size * words, into, offset, words);
+    }
+
+    public long getState() {
+        return states[size];
+    }
+
+    public int getScore() {
+        return scores[size];
+    }
+
+    public int getMoves() {
+        return moves[size];
+    }
+
+    public int getDirection() {
+        return directions[size];
+    }
+}
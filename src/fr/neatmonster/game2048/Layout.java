@@ -0,0 +1,198 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+class Layout {
+    static final         int       WIDTH           = 539;
+    static final         int       HEADER_HEIGHT   = 136;
+    static final         int       FOOTER_HEIGHT   = 60;
+    static final         Rectangle SCREEN          = new Rectangle(0, 0, WIDTH, HEADER_HEIGHT + WIDTH + FOOTER_HEIGHT);
+    static final         Rectangle HEADER          = new Rectangle(0, 0, WIDTH, HEADER_HEIGHT);
+    private static final int       GRID_SIZE       = 480;
+    private static final int       OVERLAY_CENTER  = 383;
+    private static final Color     BACKGROUND      = new Color(0xfaf8ef);
+    private static final Color     GRID_BACKGROUND = new Color(0xbbada0);
+    private static final Color     FOOTER_COLOR    = new Color(0xbbac99);
+    private static final Color     HEADER_COLOR    = new Color(0xf9f6f2);
+    private static final Color     TEXT_COLOR      = new Color(0xeee4da);
+    private static final Color     LOGO_COLOR      = new Color(0x776e65);
+
+    final         int       height;
+    final         int       tileSize;
+    final         Rectangle gridBounds;
+    final         Rectangle footerBounds;
+    private final int       gap;
+
+    private BufferedImage header = null;
+    private BufferedImage footer = null;
+    private BufferedImage board  = null;
+    private long[]        tiles  = null;
+    private int           score  = -1;
+    private int           best   = -1;
+    private int           moves  = -1;
+    private long          second = -1L;
+    private int           scoreX = 0;
+
+    Layout(final Grid size) {
+        gap = GRID_SIZE / (8 * Math.max(size.getWidth(), size.getHeight()));
+        tileSize = 7 * gap;
+        final int width = 8 * gap * size.getWidth() + gap, gridHeight = 8 * gap * size.getHeight() + gap;
+        gridBounds = new Rectangle((WIDTH - width) / 2, HEADER_HEIGHT, width, gridHeight);
+        height = HEADER_HEIGHT + gridHeight + FOOTER_HEIGHT;
+        footerBounds = new Rectangle(0, height - FOOTER_HEIGHT, WIDTH, FOOTER_HEIGHT);
+    }
+
+    int getScreenX(final int x) {
+        return gridBounds.x + gap + 8 * gap * x;
+    }
+
+    int getScreenY(final int y) {
+        return gridBounds.y + gap + 8 * gap * y;
+    }
+
+    int getOverlayOffset() {
+        return gridBounds.y + gridBounds.height / 2 - OVERLAY_CENTER;
+    }
+
+    void flush() {
+        tiles = null;
+        score = best = moves = -1;
+        second = -1L;
+    }
+
+    public int getScoreX() {
+        return scoreX;
+    }
+
+    public void paintHeader(final Graphics2D g, final int score, final int best) {
+        if (header == null || score != this.score || best != this.best) {
+            if (header == null)
+                header = Images.create(WIDTH, HEADER_HEIGHT, Transparency.OPAQUE);
+            this.score = score;
+            this.best = best;
+            final Graphics2D graphics = Images.graphics(header);
+            renderHeader(graphics);
+            graphics.dispose();
+        }
+        g.drawImage(header, 0, 0, null);
+    }
+
+    public void paintFooter(final Graphics2D g, final int y, final int moves, final long millis) {
+        final long second = millis / 1000L;
+        if (footer == null || moves != this.moves || second != this.second) {
+            if (footer == null)
+                footer = Images.create(WIDTH, FOOTER_HEIGHT, Transparency.OPAQUE);
+            this.moves = moves;
+            this.second = second;
+            final Graphics2D graphics = Images.graphics(footer);
+            renderFooter(graphics);
+            graphics.dispose();
+        }
+        g.drawImage(footer, 0, y, null);
+    }
+
+    public void paintBoard(final Graphics2D g, final Tile[] tiles, final long[] key) {
+        if (board == null || !Arrays.equals(key, this.tiles)) {
+            if (board == null)
+                board = Images.create(gridBounds.width, gridBounds.height, Transparency.OPAQUE);
+            if (this.tiles == null)
+                this.tiles = new long[key.length];
+            System.arraycopy(key, 0, this.tiles, 0, key.length);
+            final Graphics2D graphics = Images.graphics(board);
+            graphics.setColor(BACKGROUND);
+            graphics.fillRect(0, 0, gridBounds.width, gridBounds.height);
+            graphics.setColor(GRID_BACKGROUND);
+            graphics.fillRoundRect(0, 0, gridBounds.width, gridBounds.height, 6, 6);
+            graphics.translate(-gridBounds.x, -gridBounds.y);
+            for (final Tile tile : tiles)
+                tile.paint(graphics);
+            graphics.dispose();
+        }
+        g.drawImage(board, gridBounds.x, gridBounds.y, null);
+    }
+
+    private void renderHeader(final Graphics2D g) {
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, WIDTH, HEADER_HEIGHT);
+        g.setColor(LOGO_COLOR);
+        Font font = Game2048.FONT.deriveFont(80f);
+        g.setFont(font);
+        g.drawString("2048", 22, 95);
+        final String best = Integer.toString(this.best);
+        font = Game2048.FONT.deriveFont(this.best > 99999 ? 28f : this.best > 9999 ? 34f : 40f);
+        Rectangle2D bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), best).getVisualBounds();
+        final int bestWidth = Math.max(85, 32 + (int) bounds.getWidth());
+        g.setColor(GRID_BACKGROUND);
+        g.fillRoundRect(517 - bestWidth, 22, bestWidth, 92, 6, 6);
+        g.setColor(HEADER_COLOR);
+        font = Game2048.FONT.deriveFont(23f);
+        g.setFont(font);
+        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), "BEST").getVisualBounds();
+        g.drawString("BEST", 516 - (int) bounds.getWidth() - (int) ((bestWidth - bounds.getWidth()) / 2f), 54);
+        g.setColor(TEXT_COLOR);
+        font = Game2048.FONT.deriveFont(this.best > 99999 ? 28f : this.best > 9999 ? 34f : 40f);
+        g.setFont(font);
+        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), best).getVisualBounds();
+        int offset = best.startsWith("1") ? 4 : 0;
+        g.drawString(best, 515 - offset - (int) bounds.getWidth() - (int) ((bestWidth - bounds.getWidth()) / 2f),
+                98 - (this.best > 99999 ? 4 : this.best > 9999 ? 2 : 0));
+        final String score = Integer.toString(this.score);
+        font = Game2048.FONT.deriveFont(this.score > 99999 ? 28f : this.score > 9999 ? 34f : 40f);
+        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), score).getVisualBounds();
+        final int scoreWidth = Math.max(102, 32 + (int) bounds.getWidth());
+        g.setColor(GRID_BACKGROUND);
+        g.fillRoundRect(517 - bestWidth - 16 - scoreWidth, 22, scoreWidth, 92, 6, 6);
+        g.setColor(HEADER_COLOR);
+        font = Game2048.FONT.deriveFont(23f);
+        g.setFont(font);
+        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), "SCORE").getVisualBounds();
+        g.drawString("SCORE", 516 - bestWidth - 16 - (int) bounds.getWidth() - (int) ((scoreWidth - bounds.getWidth()) / 2f), 54);
+        g.setColor(TEXT_COLOR);
+        font = Game2048.FONT.deriveFont(this.score > 99999 ? 28f : this.score > 9999 ? 34f : 40f);
+        g.setFont(font);
+        bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), score).getVisualBounds();
+        offset = score.startsWith("1") ? 4 : 0;
+        scoreX = 515 - bestWidth - 16 - offset - (int) ((scoreWidth - bounds.getWidth()) / 2f);
+        g.drawString(score, scoreX - (int) bounds.getWidth(), 98 - (this.score > 99999 ? 4 : this.score > 9999 ? 2 : 0));
+    }
+
+    private void renderFooter(final Graphics2D g) {
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, WIDTH, FOOTER_HEIGHT);
+        g.setColor(FOOTER_COLOR);
+        final Font font = Game2048.FONT.deriveFont(23f);
+        g.setFont(font);
+        g.drawString(moves + " moves", 22, 38);
+        final int minutes = (int) (second / 60L);
+        final int seconds = (int) (second % 60L);
+        final String time = minutes + (seconds < 10 ? ":0" : ":") + seconds;
+        final Rectangle2D bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), time).getVisualBounds();
+        g.drawString(time, 515 - (int) bounds.getWidth(), 38);
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LeaderboardServer {
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer      server;
+    private final ExecutorService executor;
+    private final ScoreStore      store;
+    private final AtomicLong      accepted = new AtomicLong();
+    private final AtomicLong      rejected = new AtomicLong();
+
+    public LeaderboardServer(final int port, final ScoreStore store) throws IOException {
+        this.store = store;
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        executor = executor();
+        server.setExecutor(executor);
+        server.createContext("/submit", new HttpHandler() {
+
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    final String method = exchange.getRequestMethod();
+                    if (method.equals("GET"))
+                        respond(exchange, submit(exchange.getRequestURI().getRawQuery()));
+                    else if (method.equals("POST"))
+                        respond(exchange, submit(exchange));
+                    else
+                        exchange.sendResponseHeaders(405, -1);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.createContext("/top", new HttpHandler() {
+
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    final String count = parameters(exchange.getRequestURI().getRawQuery()).get("count");
+                    final List<ScoreStore.Record> records = store.top(count == null ? ScoreStore.TOP : Integer.parseInt(count));
+                    final StringBuilder response = new StringBuilder();
+                    for (int i = 0; i < records.size(); i++) {
+                        final ScoreStore.Record record = records.get(i);
+                        response.append(i + 1).append('\t').append(record.getUsername()).append('\t')
+                                .append(record.getScore()).append('\t').append(1 << record.getMaxTile()).append('\t')
+                                .append(record.getMoves()).append('\t').append(record.getDuration()).append('\n');
+                    }
+                    respond(exchange, response.toString());
+                } catch (final NumberFormatException e) {
+                    respond(exchange, 400, "Invalid count");
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.createContext("/rank", new HttpHandler() {
+
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    final String username = parameters(exchange.getRequestURI().getRawQuery()).get("username");
+                    final int rank = username == null ? -1 : store.rank(username);
+                    if (rank < 0)
+                        respond(exchange, "Unknown user");
+                    else
+                        respond(exchange, rank + "\t" + store.best(username));
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 8048;
+        final ScoreStore store = new ScoreStore(new File(System.getProperty("game2048.store", "scores")));
+        final LeaderboardServer server = new LeaderboardServer(port, store);
+        server.start();
+        System.out.println("Listening on http://localhost:" + server.getPort() + "/submit");
+        if (args.length > 1) {
+            server.load("http://localhost:" + server.getPort() + "/submit", Integer.parseInt(args[1]),
+                    args.length > 2 ? Integer.parseInt(args[2]) : 16);
+            server.stop();
+            store.flush();
+        }
+    }
+
+    private static ExecutorService executor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final Exception e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final String response) throws IOException {
+        respond(exchange, 200, response);
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String response) throws IOException {
+        final byte[] body = response.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        final OutputStream output = exchange.getResponseBody();
+        output.write(body);
+        output.close();
+    }
+
+    private static Map<String, String> parameters(final String query) throws IOException {
+        final Map<String, String> parameters = new HashMap<String, String>();
+        if (query != null)
+            for (final String parameter : query.split("&")) {
+                final int equals = parameter.indexOf('=');
+                if (equals >= 0)
+                    parameters.put(parameter.substring(0, equals), URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+            }
+        return parameters;
+    }
+
+    private static long hash(final byte[] log, final int length) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++)
+            hash = (hash ^ log[i] & 0xff) * 0x100000001b3L;
+        return hash;
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    String submit(final String query) throws IOException {
+        final Map<String, String> parameters = parameters(query);
+        final String username = parameters.get("username"), log = parameters.get("log");
+        if (username == null || log == null)
+            return reject("Missing username or log");
+        final byte[] data;
+        try {
+            data = Base64.decode(log);
+        } catch (final IllegalArgumentException e) {
+            return reject(e.getMessage());
+        }
+        return validate(username, data, data.length);
+    }
+
+    String submit(final HttpExchange exchange) {
+        final Submission submission;
+        try {
+            submission = Submission.read(exchange.getRequestBody());
+        } catch (final IOException e) {
+            return reject("Malformed submission: " + e.getMessage());
+        }
+        return validate(submission.getUsername(), submission.getLog().buffer(), submission.getLength());
+    }
+
+    String validate(final String username, final byte[] log, final int length) {
+        if (username.length() < 3 || username.length() > 20)
+            return reject("Invalid username");
+        final Replay replay = new Replay();
+        final String error = replay.replay(log, 0, length);
+        if (error != null)
+            return reject(error);
+        if (replay.isAssisted())
+            return reject("Assisted games are not ranked");
+        if (!replay.getGrid().isClassic())
+            return reject("Only 4x4 games are ranked");
+        if (!Board.isBlocked(replay.getBoard()))
+            return reject("Game is not over");
+        try {
+            store.add(username, replay.getScore(), replay.getMaxTile(), replay.getMoves(), replay.getElapsed(),
+                    hash(log, length));
+        } catch (final IOException e) {
+            e.printStackTrace();
+            return reject("Storage failure");
+        }
+        accepted.incrementAndGet();
+        return "true";
+    }
+
+    private String reject(final String message) {
+        rejected.incrementAndGet();
+        return message;
+    }
+
+    void load(final String url, final int requests, final int threads) throws InterruptedException {
+        final Random random = new Random();
+        final Submission[] submissions = new Submission[64];
+        for (int i = 0; i < submissions.length; i++) {
+            final LogBuffer log = new LogBuffer();
+            final byte[] data = Replay.record(Strategy.RANDOM, random.nextLong());
+            log.write(data, 0, data.length);
+            submissions[i] = new Submission("player" + i, log);
+        }
+        final Submitter submitter = new Submitter(url, new File(System.getProperty("java.io.tmpdir"), "2048-load"));
+        final ExecutorService clients = Executors.newFixedThreadPool(threads);
+        final AtomicLong failures = new AtomicLong();
+        final long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            final Submission submission = submissions[i % submissions.length];
+            clients.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        if (!submitter.post(submission).equals("true"))
+                            failures.incrementAndGet();
+                    } catch (final IOException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(1L, TimeUnit.HOURS);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("%d requests in %.3f s, %.0f requests/s, %d failures", requests, seconds,
+                requests / seconds, failures.get()));
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import com.sun.management.ThreadMXBean;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Metrics implements MetricsMXBean {
+    static final         Metrics INSTANCE = new Metrics();
+    private static final String  NAME     = "fr.neatmonster.game2048:type=Metrics";
+    private static final long    SECOND   = 1000000000L;
+
+    private final    Histogram    paintComponent = new Histogram();
+    private final    Histogram    animations     = new Histogram();
+    private final    Histogram    input          = new Histogram();
+    private final    Histogram    moves          = new Histogram();
+    private final    Histogram    sends          = new Histogram();
+    private final    Histogram    allocations    = new Histogram();
+    private final    AtomicLong   frames         = new AtomicLong();
+    private final    AtomicLong   failures       = new AtomicLong();
+    private volatile long         window         = System.nanoTime();
+    private volatile long         windowFrames   = 0L;
+    private volatile double       rate           = 0.0;
+    private volatile long         pressed        = 0L;
+    private volatile Animator     animator       = null;
+    private volatile ThreadMXBean threads        = null;
+
+    public static synchronized void register(final Game2048 game) {
+        INSTANCE.animator = game.animator;
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(NAME);
+            if (server.isRegistered(name))
+                return;
+            final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof ThreadMXBean && ((ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+                ((ThreadMXBean) threads).setThreadAllocatedMemoryEnabled(true);
+                INSTANCE.threads = (ThreadMXBean) threads;
+            }
+            server.registerMBean(INSTANCE, name);
+        } catch (final Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    long allocated() {
+        final ThreadMXBean threads = this.threads;
+        return threads == null ? -1L : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    void painted(final long allocated) {
+        final long now = System.nanoTime();
+        if (allocated >= 0L)
+            allocations.record(allocated() - allocated);
+        final long count = frames.incrementAndGet();
+        if (now - window >= SECOND) {
+            rate = (count - windowFrames) * (double) SECOND / (now - window);
+            windowFrames = count;
+            window = now;
+        }
+        if (pressed != 0L) {
+            input.record(now - pressed);
+            pressed = 0L;
+        }
+    }
+
+    void paintComponent(final long nanos) {
+        paintComponent.record(nanos);
+    }
+
+    void animations(final long nanos) {
+        animations.record(nanos);
+    }
+
+    void keyPressed() {
+        if (pressed == 0L)
+            pressed = System.nanoTime();
+    }
+
+    void moved(final long nanos) {
+        moves.record(nanos);
+    }
+
+    void sent(final long nanos, final boolean success) {
+        sends.record(nanos);
+        if (!success)
+            failures.incrementAndGet();
+    }
+
+    @Override
+    public Histogram.Snapshot getPaintComponentNanos() {
+        return paintComponent.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getAnimationPaintNanos() {
+        return animations.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getInputLatencyNanos() {
+        return input.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getMoveNanos() {
+        return moves.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getSendLatencyNanos() {
+        return sends.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getFrameAllocatedBytes() {
+        return allocations.snapshot();
+    }
+
+    @Override
+    public long getFrames() {
+        return frames.get();
+    }
+
+    @Override
+    public double getRepaintRate() {
+        final long elapsed = System.nanoTime() - window;
+        if (elapsed >= 2L * SECOND)
+            return (frames.get() - windowFrames) * (double) SECOND / elapsed;
+        return rate;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        final Animator animator = this.animator;
+        return animator == null ? 0 : animator.getQueueDepth();
+    }
+
+    @Override
+    public long getSendFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public void reset() {
+        paintComponent.clear();
+        animations.clear();
+        input.clear();
+        moves.clear();
+        sends.clear();
+        allocations.clear();
+        failures.set(0L);
+        windowFrames = frames.get();
+        window = System.nanoTime();
+        rate = 0.0;
+    }
+}
@@ -31,23 +31,32 @@ public class Move extends Animation {
     private final TileValue value;
 
     public Move(final Tile src, final Tile dst) {
-        super(50);
-        this.src = src;
-        this.dst = dst;
-        value = src.getValue();
+        this(src, dst, src.getValue());
         src.setValue(TileValue.TILE_EMPTY);
         if (dst.getValue() != dst.getFutureValue())
             dst.setValue(TileValue.TILE_EMPTY);
         dst.setFutureValue(value);
     }
 
+    public Move(final Tile src, final Tile dst, final TileValue value) {
+        super(100);
+        this.src = src;
+        this.dst = dst;
+        this.value = value;
+        bounds = new Rectangle(Math.min(src.getScreenX(), dst.getScreenX()), Math.min(src.getScreenY(), dst.getScreenY()),
+                Math.abs(src.getScreenX() - dst.getScreenX()) + src.getSize(),
+                Math.abs(src.getScreenY() - dst.getScreenY()) + src.getSize());
+    }
+
     @Override
     public void paint(final Graphics2D g) {
         super.paint(g);
         if (src.getX() == dst.getX())
-            value.paint(g, src.getScreenX(), src.getScreenY() + (int) (getPercentage() * (dst.getScreenY() - src.getScreenY())));
+            value.paint(g, src.getScreenX(), src.getScreenY() + (int) (getPercentage() * (dst.getScreenY() - src.getScreenY())),
+                    src.getSize());
         else if (src.getY() == dst.getY())
-            value.paint(g, src.getScreenX() + (int) (getPercentage() * (dst.getScreenX() - src.getScreenX())), src.getScreenY());
+            value.paint(g, src.getScreenX() + (int) (getPercentage() * (dst.getScreenX() - src.getScreenX())), src.getScreenY(),
+                    src.getSize());
     }
 
     @Override
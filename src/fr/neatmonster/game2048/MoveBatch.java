@@ -0,0 +1,104 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+public class MoveBatch {
+    private final int         capacity;
+    private final long[]      transposed;
+    private final long[][]    results;
+    private final int[][]     scores;
+    private final boolean[][] changed;
+    private       int         size = 0;
+
+    public MoveBatch(final int capacity) {
+        this.capacity = capacity;
+        transposed = new long[capacity];
+        results = new long[4][capacity];
+        scores = new int[4][capacity];
+        changed = new boolean[4][capacity];
+    }
+
+    public void evaluate(final long[] boards, final int offset, final int count) {
+        if (count > capacity)
+            throw new IllegalArgumentException("Batch of " + count + " exceeds capacity " + capacity);
+        size = count;
+        final long[] up = results[Board.UP - 1], down = results[Board.DOWN - 1];
+        final long[] left = results[Board.LEFT - 1], right = results[Board.RIGHT - 1];
+        final int[] vertical = scores[Board.UP - 1], horizontal = scores[Board.LEFT - 1];
+        for (int i = 0; i < count; i++)
+            transposed[i] = Board.transpose(boards[offset + i]);
+        for (int i = 0; i < count; i++) {
+            final long board = boards[offset + i];
+            final int row0 = (int) board & 0xffff, row1 = (int) (board >>> 16) & 0xffff;
+            final int row2 = (int) (board >>> 32) & 0xffff, row3 = (int) (board >>> 48) & 0xffff;
+            left[i] = Board.left(row0) | (long) Board.left(row1) << 16
+                    | (long) Board.left(row2) << 32 | (long) Board.left(row3) << 48;
+            right[i] = Board.right(row0) | (long) Board.right(row1) << 16
+                    | (long) Board.right(row2) << 32 | (long) Board.right(row3) << 48;
+            horizontal[i] = Board.rowScore(row0) + Board.rowScore(row1) + Board.rowScore(row2) + Board.rowScore(row3);
+        }
+        for (int i = 0; i < count; i++) {
+            final long board = transposed[i];
+            final int row0 = (int) board & 0xffff, row1 = (int) (board >>> 16) & 0xffff;
+            final int row2 = (int) (board >>> 32) & 0xffff, row3 = (int) (board >>> 48) & 0xffff;
+            up[i] = Board.left(row0) | (long) Board.left(row1) << 16
+                    | (long) Board.left(row2) << 32 | (long) Board.left(row3) << 48;
+            down[i] = Board.right(row0) | (long) Board.right(row1) << 16
+                    | (long) Board.right(row2) << 32 | (long) Board.right(row3) << 48;
+            vertical[i] = Board.rowScore(row0) + Board.rowScore(row1) + Board.rowScore(row2) + Board.rowScore(row3);
+        }
+        for (int i = 0; i < count; i++) {
+            up[i] = Board.transpose(up[i]);
+            down[i] = Board.transpose(down[i]);
+        }
+        System.arraycopy(vertical, 0, scores[Board.DOWN - 1], 0, count);
+        System.arraycopy(horizontal, 0, scores[Board.RIGHT - 1], 0, count);
+        for (int direction = 0; direction < 4; direction++) {
+            final long[] result = results[direction];
+            final boolean[] moved = changed[direction];
+            for (int i = 0; i < count; i++)
+                moved[i] = result[i] != boards[offset + i];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long[] getResults(final int direction) {
+        return results[direction - 1];
+    }
+
+    public int[] getScores(final int direction) {
+        return scores[direction - 1];
+    }
+
+    public boolean[] getChanged(final int direction) {
+        return changed[direction - 1];
+    }
+}
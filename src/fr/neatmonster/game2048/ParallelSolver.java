@@ -0,0 +1,308 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class ParallelSolver {
+    private static final int SPLIT_DEPTH = 2;
+
+    private final    ForkJoinPool        pool;
+    private final    TranspositionTable  table;
+    private final    List<Worker>        workers   = new ArrayList<Worker>();
+    private final    ThreadLocal<Worker> local     = new ThreadLocal<Worker>() {
+
+        @Override
+        protected Worker initialValue() {
+            final Worker worker = new Worker();
+            synchronized (workers) {
+                workers.add(worker);
+            }
+            return worker;
+        }
+    };
+    private volatile long                deadline  = Long.MAX_VALUE;
+    private volatile boolean             cancelled = false;
+    private          long                nodes     = 0L;
+    private          long                duration  = 0L;
+    private          int                 depth     = 0;
+
+    public ParallelSolver() {
+        this(new ForkJoinPool(), 22);
+    }
+
+    public ParallelSolver(final ForkJoinPool pool, final int tableBits) {
+        this.pool = pool;
+        table = new TranspositionTable(tableBits);
+    }
+
+    public static void main(final String[] args) {
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        final int positions = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        final Random random = new Random(2048L);
+        final long[] boards = new long[positions];
+        long board = Board.spawn(Board.spawn(0L, random), random);
+        for (int i = 0; i < positions; i++) {
+            for (int j = 0; j < 40 && !Board.isBlocked(board); j++)
+                board = Board.spawn(Board.move(board, Strategy.GREEDY.choose(board, random)), random);
+            if (Board.isBlocked(board))
+                board = Board.spawn(Board.spawn(0L, random), random);
+            boards[i] = board;
+        }
+        final Solver solver = new Solver(22);
+        final ParallelSolver parallel = new ParallelSolver();
+        long sequentialTime = 0L, parallelTime = 0L, sequentialNodes = 0L, parallelNodes = 0L;
+        int agree = 0;
+        for (final long position : boards) {
+            solver.clear();
+            parallel.clear();
+            final int expected = solver.bestMoveAtDepth(position, depth);
+            final int actual = parallel.bestMoveAtDepth(position, depth);
+            sequentialTime += solver.getDuration();
+            sequentialNodes += solver.getNodes();
+            parallelTime += parallel.getDuration();
+            parallelNodes += parallel.getNodes();
+            if (expected == actual)
+                agree++;
+        }
+        System.out.println(String.format("sequential: %.1f ms, %.0f nodes/s", sequentialTime / 1e6, sequentialNodes * 1e9 / sequentialTime));
+        System.out.println(String.format("parallel:   %.1f ms, %.0f nodes/s (%d threads)", parallelTime / 1e6,
+                parallelNodes * 1e9 / parallelTime, parallel.pool.getParallelism()));
+        System.out.println(String.format("speedup:    %.2fx, %d/%d identical moves", (double) sequentialTime / parallelTime, agree, positions));
+    }
+
+    public int bestMove(final long board, final long budget) {
+        final long start = System.nanoTime();
+        prepare(start + budget * 1000000L);
+        int best = Solver.firstLegal(board);
+        for (depth = 1; depth <= Solver.MAX_DEPTH; depth++) {
+            final int direction = pool.invoke(new Root(board, depth));
+            if (hasAborted())
+                break;
+            best = direction;
+        }
+        depth--;
+        finish(start);
+        return best;
+    }
+
+    public int bestMoveAtDepth(final long board, final int depth) {
+        final long start = System.nanoTime();
+        prepare(Long.MAX_VALUE);
+        final int best = pool.invoke(new Root(board, depth));
+        this.depth = depth;
+        finish(start);
+        return best;
+    }
+
+    private void prepare(final long deadline) {
+        this.deadline = deadline;
+        cancelled = false;
+        synchronized (workers) {
+            for (final Worker worker : workers) {
+                worker.aborted = false;
+                worker.nodes = 0L;
+            }
+        }
+    }
+
+    private boolean hasAborted() {
+        synchronized (workers) {
+            for (final Worker worker : workers)
+                if (worker.aborted)
+                    return true;
+        }
+        return false;
+    }
+
+    private void finish(final long start) {
+        duration = System.nanoTime() - start;
+        nodes = 0L;
+        synchronized (workers) {
+            for (final Iterator<Worker> iterator = workers.iterator(); iterator.hasNext();) {
+                final Worker worker = iterator.next();
+                nodes += worker.nodes;
+                if (!worker.thread.isAlive())
+                    iterator.remove();
+            }
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public void clear() {
+        table.clear();
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public double getNodesPerSecond() {
+        return duration == 0L ? 0.0 : nodes * 1e9 / duration;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    private float chance(final long board, final int depth, final float probability) {
+        if (depth < SPLIT_DEPTH || probability < Solver.MIN_PROBABILITY)
+            return local.get().chance(board, depth, probability);
+        return new Chance(board, depth, probability).compute();
+    }
+
+    private class Worker extends Solver {
+        private final Thread thread = Thread.currentThread();
+
+        Worker() {
+            super(table);
+        }
+
+        @Override
+        boolean expired() {
+            return cancelled || System.nanoTime() > deadline;
+        }
+    }
+
+    private class Root extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final long board;
+        private final int  depth;
+
+        Root(final long board, final int depth) {
+            this.board = board;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Integer compute() {
+            final Chance[] moves = new Chance[4];
+            for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+                final long moved = Board.move(board, direction);
+                if (moved != board)
+                    moves[direction - 1] = (Chance) new Chance(moved, depth, 1f).fork();
+            }
+            int best = Solver.firstLegal(board);
+            float bestValue = -1f;
+            for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+                if (moves[direction - 1] == null)
+                    continue;
+                final float value = moves[direction - 1].join();
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = direction;
+                }
+            }
+            return best;
+        }
+    }
+
+    private class Chance extends RecursiveTask<Float> {
+        private static final long serialVersionUID = 1L;
+
+        private final long  board;
+        private final int   depth;
+        private final float probability;
+
+        Chance(final long board, final int depth, final float probability) {
+            this.board = board;
+            this.depth = depth;
+            this.probability = probability;
+        }
+
+        @Override
+        protected Float compute() {
+            final Worker worker = local.get();
+            if (depth < SPLIT_DEPTH || probability < Solver.MIN_PROBABILITY)
+                return worker.chance(board, depth, probability);
+            worker.nodes++;
+            if (worker.expired()) {
+                worker.aborted = true;
+                return 0f;
+            }
+            final long hit = table.get(board, depth);
+            if (hit >= 0L)
+                return Float.intBitsToFloat((int) hit);
+            final int empty = Board.emptyCells(board);
+            final Spawn[] spawns = new Spawn[empty];
+            int count = 0;
+            for (int cell = 0; cell < 16; cell++)
+                if (Board.get(board, cell) == 0)
+                    spawns[count++] = new Spawn(board, cell, depth - 1, probability / empty);
+            invokeAll(spawns);
+            float sum = 0f;
+            for (final Spawn spawn : spawns)
+                sum += spawn.getRawResult();
+            final float value = sum / empty;
+            if (!worker.expired())
+                table.put(board, depth, value);
+            return value;
+        }
+    }
+
+    private class Spawn extends RecursiveTask<Float> {
+        private static final long serialVersionUID = 1L;
+
+        private final long  board;
+        private final int   cell;
+        private final int   depth;
+        private final float probability;
+
+        Spawn(final long board, final int cell, final int depth, final float probability) {
+            this.board = board;
+            this.cell = cell;
+            this.depth = depth;
+            this.probability = probability;
+        }
+
+        @Override
+        protected Float compute() {
+            return 0.9f * max(Board.set(board, cell, 1), probability * 0.9f)
+                    + 0.1f * max(Board.set(board, cell, 2), probability * 0.1f);
+        }
+
+        private float max(final long board, final float probability) {
+            float best = 0f;
+            for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+                final long moved = Board.move(board, direction);
+                if (moved != board)
+                    best = Math.max(best, chance(moved, depth, probability));
+            }
+            return best;
+        }
+    }
+}
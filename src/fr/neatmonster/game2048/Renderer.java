@@ -0,0 +1,353 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class Renderer {
+    private static final int BATCH     = 16;
+    private static final int UNDO      = 6;
+    private static final int WIN       = 1000;
+    private static final int GAME_OVER = 600;
+    private static final int HOLD      = 1500;
+
+    static {
+        if (System.getProperty("java.awt.headless") == null)
+            System.setProperty("java.awt.headless", "true");
+        final Font font = Game2048.loadFont();
+        if (font != null)
+            Game2048.FONT = font;
+    }
+
+    private final Grid   grid;
+    private final long[] opening;
+    private final byte[] actions;
+    private final int[]  spawns;
+    private final int    count;
+    private final int    won;
+    private final int    fps;
+    private final int    step;
+    private final int    frames;
+
+    public Renderer(final byte[] log, final int length, final int fps, final int step) {
+        final Replay replay = new Replay();
+        final String error = replay.replay(log, 0, length);
+        if (error != null)
+            throw new IllegalArgumentException(error);
+        this.fps = fps;
+        this.step = step;
+        grid = replay.getGrid();
+        opening = grid.create();
+        actions = new byte[length];
+        spawns = new int[length];
+        int position = 0, count = 0;
+        while (position < length) {
+            final int entry = log[position] & 0xff;
+            if (entry == 0) {
+                position += 8;
+            } else if (entry == 5) {
+                position += 9;
+            } else if (entry == 7) {
+                position += 3;
+            } else if (entry <= Board.RIGHT || entry == UNDO) {
+                actions[count] = (byte) entry;
+                spawns[count++] = -1;
+                position++;
+            } else {
+                final int spawn;
+                if (entry == 8) {
+                    spawn = (log[position + 1] & 0xff) << 4 | log[position + 2] & 0xff;
+                    position += 3;
+                } else {
+                    spawn = (entry & 0xf) << 4 | entry >>> 4;
+                    position++;
+                }
+                if (count == 0)
+                    grid.set(opening, spawn >>> 4, spawn & 0xf);
+                else
+                    spawns[count - 1] = spawn;
+            }
+        }
+        this.count = count;
+        won = firstWin();
+        frames = (int) ((at(count) + GAME_OVER + HOLD) * fps / 1000L) + 1;
+    }
+
+    private int firstWin() {
+        final long[] rows = opening.clone(), moved = grid.create(), packed = new long[grid.getWords()];
+        final History history = new History(grid.getWords());
+        for (int action = 0; action < count; action++) {
+            if (actions[action] == UNDO) {
+                history.undo();
+                history.getBoard(packed, 0);
+                grid.unpack(packed, 0, rows);
+                continue;
+            }
+            if (grid.move(rows, actions[action], moved) >= 0) {
+                grid.pack(rows, packed, 0);
+                history.push(packed, 0, 0, 0L, 0, actions[action]);
+                System.arraycopy(moved, 0, rows, 0, rows.length);
+                if (grid.maxTile(rows) >= TileValue.TILE_2048.ordinal())
+                    return action;
+            }
+            if (spawns[action] >= 0)
+                grid.set(rows, spawns[action] >>> 4, spawns[action] & 0xf);
+        }
+        return -1;
+    }
+
+    private long at(final int action) {
+        return (action + 1L) * step + (won >= 0 && action > won ? WIN : 0);
+    }
+
+    public static void main(final String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: Renderer <log|seed> <directory|file.gif> [fps] [step ms]");
+            return;
+        }
+        final byte[] log;
+        final File file = new File(args[0]);
+        if (file.isFile()) {
+            log = new byte[(int) file.length()];
+            final DataInputStream input = new DataInputStream(new FileInputStream(file));
+            try {
+                input.readFully(log);
+            } finally {
+                input.close();
+            }
+        } else {
+            log = Replay.record(Strategy.GREEDY, Long.parseLong(args[0]));
+        }
+        final Renderer renderer = new Renderer(log, log.length, args.length > 2 ? Integer.parseInt(args[2]) : 25,
+                args.length > 3 ? Integer.parseInt(args[3]) : 150);
+        final ForkJoinPool pool = new ForkJoinPool();
+        final long start = System.nanoTime();
+        renderer.render(pool, new File(args[1]));
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("%d frames in %.2f s, %.1f frames/s (%d threads)", renderer.getFrames(), seconds,
+                renderer.getFrames() / seconds, pool.getParallelism()));
+        pool.shutdown();
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public void render(final ForkJoinPool pool, final File output) throws IOException, InterruptedException {
+        final boolean gif = output.getName().endsWith(".gif");
+        if (!gif && !output.isDirectory() && !output.mkdirs())
+            throw new IOException("Cannot create " + output);
+        final int workers = pool.getParallelism();
+        final Session[] sessions = new Session[workers];
+        final BufferedImage[] images = new BufferedImage[workers * BATCH];
+        final GifSequence sequence = gif ? new GifSequence(output, Math.round(100f / fps)) : null;
+        try {
+            for (int first = 0; first < frames; first += images.length) {
+                final int base = first, last = Math.min(frames, first + images.length);
+                final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+                for (int worker = 0; worker < workers && first + worker * BATCH < last; worker++) {
+                    final int index = worker, from = first + worker * BATCH, to = Math.min(last, from + BATCH);
+                    tasks.add(new Callable<Void>() {
+
+                        @Override
+                        public Void call() throws IOException {
+                            if (sessions[index] == null)
+                                sessions[index] = new Session();
+                            for (int frame = from; frame < to; frame++) {
+                                BufferedImage image = images[frame - base];
+                                if (image == null)
+                                    image = images[frame - base] = sessions[index].create();
+                                sessions[index].render(frame, image);
+                                if (!gif)
+                                    ImageIO.write(image, "png", new File(output, String.format("frame-%05d.png", frame)));
+                            }
+                            return null;
+                        }
+                    });
+                }
+                for (final Future<Void> future : pool.invokeAll(tasks))
+                    try {
+                        future.get();
+                    } catch (final ExecutionException e) {
+                        throw new IOException("Rendering failed", e.getCause());
+                    }
+                if (gif)
+                    for (int frame = first; frame < last; frame++)
+                        sequence.write(images[frame - first]);
+            }
+        } finally {
+            if (gif)
+                sequence.close();
+        }
+    }
+
+    private final class Session {
+        private final Game2048 game  = new Game2048(grid, false);
+        private       int      next  = 0;
+        private       int      last  = -1;
+        private       boolean  ended = false;
+
+        Session() {
+            game.setSize(Layout.WIDTH, game.layout.height);
+            game.setDoubleBuffered(false);
+            game.animator.timeline.set(0L);
+            game.clear();
+            for (int cell = 0; cell < grid.getCells(); cell++)
+                if (grid.get(opening, cell) != 0)
+                    game.insertTile(tile(cell), TileValue.of(grid.get(opening, cell)), 0);
+        }
+
+        BufferedImage create() {
+            return new BufferedImage(Layout.WIDTH, game.layout.height, BufferedImage.TYPE_INT_RGB);
+        }
+
+        private Tile tile(final int cell) {
+            return game.getTile(cell % grid.getWidth(), cell / grid.getWidth());
+        }
+
+        void render(final int frame, final BufferedImage image) {
+            if (frame > 0 && frame != last + 1)
+                paint(frame - 1, image);
+            paint(frame, image);
+            last = frame;
+        }
+
+        private void paint(final int frame, final BufferedImage image) {
+            final long time = frame * 1000L / fps;
+            for (; next < count && at(next) <= time; next++) {
+                win(time);
+                game.animator.timeline.set(at(next));
+                game.animator.terminate(false);
+                if (actions[next] == UNDO) {
+                    game.undo();
+                } else {
+                    final int delay = game.play(actions[next]);
+                    if (spawns[next] >= 0)
+                        game.insertTile(tile(spawns[next] >>> 4), TileValue.of(spawns[next] & 0xf), delay);
+                }
+            }
+            win(time);
+            if (!ended && next == count && at(count) <= time) {
+                ended = true;
+                game.animator.timeline.set(at(count));
+                game.animator.terminate(false);
+                if (game.isBlocked()) {
+                    game.gameOver = new GameOver(game);
+                    game.animator.add(game.gameOver);
+                }
+            }
+            game.animator.timeline.set(time);
+            final Graphics2D g = image.createGraphics();
+            game.paint(g);
+            g.dispose();
+        }
+
+        private void win(final long time) {
+            final long settled = (won + 2L) * step;
+            if (won < 0 || next != won + 1 || game.gameWon != null || settled > time)
+                return;
+            game.animator.timeline.set(settled);
+            game.animator.terminate(false);
+            game.gameWon = new GameWon(game.layout);
+            game.animator.add(game.gameWon);
+        }
+    }
+
+    private static final class GifSequence {
+        private final ImageWriter       writer;
+        private final ImageOutputStream stream;
+        private final int               delay;
+        private       IIOMetadata       metadata = null;
+
+        GifSequence(final File file, final int delay) throws IOException {
+            if (file.exists() && !file.delete())
+                throw new IOException("Cannot replace " + file);
+            writer = ImageIO.getImageWritersByFormatName("gif").next();
+            stream = ImageIO.createImageOutputStream(file);
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+            this.delay = delay;
+        }
+
+        void write(final BufferedImage image) throws IOException {
+            if (metadata == null)
+                metadata = metadata(image);
+            writer.writeToSequence(new IIOImage(image, null, metadata), null);
+        }
+
+        private IIOMetadata metadata(final BufferedImage image) throws IOException {
+            final IIOMetadata metadata = writer.getDefaultImageMetadata(new ImageTypeSpecifier(image), null);
+            final String format = metadata.getNativeMetadataFormatName();
+            final IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+            final IIOMetadataNode control = child(root, "GraphicControlExtension");
+            control.setAttribute("disposalMethod", "none");
+            control.setAttribute("userInputFlag", "FALSE");
+            control.setAttribute("transparentColorFlag", "FALSE");
+            control.setAttribute("delayTime", String.valueOf(delay));
+            control.setAttribute("transparentColorIndex", "0");
+            final IIOMetadataNode extension = new IIOMetadataNode("ApplicationExtension");
+            extension.setAttribute("applicationID", "NETSCAPE");
+            extension.setAttribute("authenticationCode", "2.0");
+            extension.setUserObject(new byte[]{1, 0, 0});
+            child(root, "ApplicationExtensions").appendChild(extension);
+            metadata.setFromTree(format, root);
+            return metadata;
+        }
+
+        private static IIOMetadataNode child(final IIOMetadataNode root, final String name) {
+            for (Node node = root.getFirstChild(); node != null; node = node.getNextSibling())
+                if (node.getNodeName().equals(name))
+                    return (IIOMetadataNode) node;
+            final IIOMetadataNode node = new IIOMetadataNode(name);
+            root.appendChild(node);
+            return node;
+        }
+
+        void close() throws IOException {
+            writer.endWriteSequence();
+            stream.close();
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+public class Replay {
+    private final SplitRandom random   = new SplitRandom(0L);
+    private final History     history  = new History();
+    private       boolean     seeded   = false;
+    private       boolean     assisted = false;
+    private       Grid        grid     = Grid.CLASSIC;
+    private       long        board    = 0L;
+    private       long[]      rows     = null;
+    private       int         score    = 0;
+    private       int         moves    = 0;
+    private       long        elapsed  = 0L;
+    private       long        since    = -1L;
+
+    public static void main(final String[] args) throws IOException {
+        final Replay replay = new Replay();
+        if (args.length > 0) {
+            for (final String name : args) {
+                final File file = new File(name);
+                final byte[] log = new byte[(int) file.length()];
+                final DataInputStream input = new DataInputStream(new FileInputStream(file));
+                try {
+                    input.readFully(log);
+                } finally {
+                    input.close();
+                }
+                final String error = replay.replay(log, 0, log.length);
+                System.out.println(name + ": " + (error == null ? "valid" : error) + ", score " + replay.score
+                        + ", max tile " + (1 << replay.getMaxTile()) + ", " + replay.moves + " moves, "
+                        + replay.elapsed / 1000L + " s");
+            }
+            return;
+        }
+        final SplitRandom random = new SplitRandom();
+        final byte[][] logs = new byte[1000][];
+        long bytes = 0L;
+        for (int i = 0; i < logs.length; i++) {
+            logs[i] = record(Strategy.GREEDY, random.nextLong());
+            bytes += logs[i].length;
+        }
+        for (int round = 0; round < 5; round++) {
+            final long start = System.nanoTime();
+            long moves = 0L;
+            for (final byte[] log : logs) {
+                if (replay.replay(log, 0, log.length) != null)
+                    throw new IllegalStateException("Recorded game failed to replay");
+                moves += replay.moves;
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(String.format("%.0f logs/s, %.0f moves/s, %.1f MB/s", logs.length / seconds,
+                    moves / seconds, bytes / seconds / 1e6));
+        }
+    }
+
+    static byte[] record(final Strategy strategy, final long seed) {
+        final SplitRandom random = new SplitRandom(seed), choices = new SplitRandom(SplitRandom.mix(seed));
+        final LogBuffer log = new LogBuffer();
+        log.write(5);
+        for (int shift = 56; shift >= 0; shift -= 8)
+            log.write((int) (seed >>> shift));
+        log.write(0);
+        for (int i = 0; i < 7; i++)
+            log.write(0);
+        long board = spawn(0L, random, log);
+        board = spawn(board, random, log);
+        while (!Board.isBlocked(board)) {
+            final int direction = strategy.choose(board, choices);
+            log.write(direction);
+            final long moved = Board.move(board, direction);
+            if (moved != board)
+                board = spawn(moved, random, log);
+        }
+        return log.toByteArray();
+    }
+
+    private static long spawn(final long board, final SplitRandom random, final LogBuffer log) {
+        final long spawned = Board.spawn(board, random);
+        final long cell = Long.numberOfTrailingZeros(board ^ spawned) >>> 2;
+        log.write((int) (cell | Board.get(spawned, (int) cell) << 4));
+        return spawned;
+    }
+
+    public String replay(final byte[] log, final int offset, final int length) {
+        return replay(log, offset, length, false);
+    }
+
+    private String replay(final byte[] log, final int offset, final int length, final boolean recording) {
+        seeded = assisted = false;
+        history.clear();
+        grid = Grid.CLASSIC;
+        board = 0L;
+        score = moves = 0;
+        elapsed = 0L;
+        since = -1L;
+        final int end = offset + length;
+        int position = offset, spawns = 2;
+        while (position < end) {
+            final int entry = log[position] & 0xff;
+            if (entry == 0) {
+                final String error = time(log, position, end);
+                if (error != null)
+                    return error;
+                position += 8;
+            } else if (entry <= Board.RIGHT) {
+                if (spawns > 0)
+                    return "Missing spawn before byte " + position;
+                if (Board.isBlocked(board))
+                    return "Move after game over at byte " + position;
+                final long moved = Board.move(board, entry);
+                if (moved != board) {
+                    if (recording)
+                        history.push(board, score, random.getState(), moves, entry);
+                    score += Board.score(board, entry);
+                    board = moved;
+                    spawns = 1;
+                }
+                moves++;
+                position++;
+            } else if (entry == 6) {
+                if (!recording)
+                    return replay(log, offset, length, true);
+                if (spawns > 0)
+                    return "Missing spawn before byte " + position;
+                if (!history.undo())
+                    return "Nothing to undo at byte " + position;
+                board = history.getBoard();
+                score = history.getScore();
+                moves = history.getMoves();
+                random.setState(history.getState());
+                assisted = true;
+                position++;
+            } else if (entry == 5) {
+                if (position + 9 > end)
+                    return "Truncated seed at byte " + position;
+                if (seeded || board != 0L)
+                    return "Unexpected seed at byte " + position;
+                long seed = 0L;
+                for (int i = 1; i < 9; i++)
+                    seed = seed << 8 | log[position + i] & 0xff;
+                random.setSeed(seed);
+                seeded = true;
+                position += 9;
+            } else if (entry == 7) {
+                if (position + 3 > end)
+                    return "Truncated size at byte " + position;
+                if (position != offset)
+                    return "Unexpected size at byte " + position;
+                try {
+                    grid = Grid.of(log[position + 1] & 0xff, log[position + 2] & 0xff);
+                } catch (final IllegalArgumentException e) {
+                    return "Invalid size at byte " + position;
+                }
+                return replay(log, offset, position + 3, end, recording);
+            } else if (entry >= 16) {
+                final int cell = entry & 0xf;
+                final int exponent = entry >>> 4;
+                if (spawns == 0)
+                    return "Unexpected spawn at byte " + position;
+                if (exponent > 2)
+                    return "Invalid spawn value at byte " + position;
+                if (Board.get(board, cell) != 0)
+                    return "Spawn on occupied cell at byte " + position;
+                if (seeded) {
+                    long occupied = board | board >>> 2;
+                    occupied |= occupied >>> 1;
+                    final long empty = ~occupied & 0x1111111111111111L;
+                    final int index = random.nextInt(Long.bitCount(empty));
+                    final int expected = random.nextFloat() < 0.9f ? 1 : 2;
+                    if (Long.bitCount(empty & (1L << 4 * cell) - 1) != index || exponent != expected)
+                        return "Spawn does not match seed at byte " + position;
+                }
+                board = Board.set(board, cell, exponent);
+                spawns--;
+                position++;
+            } else {
+                return "Unknown entry " + entry + " at byte " + position;
+            }
+        }
+        if (spawns > 0)
+            return "Missing spawn at end of log";
+        return null;
+    }
+
+    private String replay(final byte[] log, final int offset, int position, final int end, final boolean recording) {
+        rows = grid.create();
+        final long[] moved = grid.create(), packed = new long[grid.getWords()];
+        final History history = new History(grid.getWords());
+        int spawns = 2;
+        while (position < end) {
+            final int entry = log[position] & 0xff;
+            if (entry == 0) {
+                final String error = time(log, position, end);
+                if (error != null)
+                    return error;
+                position += 8;
+            } else if (entry <= Board.RIGHT) {
+                if (spawns > 0)
+                    return "Missing spawn before byte " + position;
+                if (grid.isBlocked(rows))
+                    return "Move after game over at byte " + position;
+                final int gained = grid.move(rows, entry, moved);
+                if (gained >= 0) {
+                    if (recording) {
+                        grid.pack(rows, packed, 0);
+                        history.push(packed, 0, score, random.getState(), moves, entry);
+                    }
+                    score += gained;
+                    System.arraycopy(moved, 0, rows, 0, rows.length);
+                    spawns = 1;
+                }
+                moves++;
+                position++;
+            } else if (entry == 6) {
+                if (!recording)
+                    return replay(log, offset, end - offset, true);
+                if (spawns > 0)
+                    return "Missing spawn before byte " + position;
+                if (!history.undo())
+                    return "Nothing to undo at byte " + position;
+                history.getBoard(packed, 0);
+                grid.unpack(packed, 0, rows);
+                score = history.getScore();
+                moves = history.getMoves();
+                random.setState(history.getState());
+                assisted = true;
+                position++;
+            } else if (entry == 5) {
+                if (position + 9 > end)
+                    return "Truncated seed at byte " + position;
+                if (seeded || grid.emptyCells(rows) != grid.getCells())
+                    return "Unexpected seed at byte " + position;
+                long seed = 0L;
+                for (int i = 1; i < 9; i++)
+                    seed = seed << 8 | log[position + i] & 0xff;
+                random.setSeed(seed);
+                seeded = true;
+                position += 9;
+            } else if (entry == 8) {
+                if (position + 3 > end)
+                    return "Truncated spawn at byte " + position;
+                final int cell = log[position + 1] & 0xff;
+                final int exponent = log[position + 2] & 0xff;
+                if (spawns == 0)
+                    return "Unexpected spawn at byte " + position;
+                if (exponent < 1 || exponent > 2)
+                    return "Invalid spawn value at byte " + position;
+                if (cell >= grid.getCells())
+                    return "Invalid spawn cell at byte " + position;
+                if (grid.get(rows, cell) != 0)
+                    return "Spawn on occupied cell at byte " + position;
+                if (seeded) {
+                    final int index = random.nextInt(grid.emptyCells(rows));
+                    final int expected = random.nextFloat() < 0.9f ? 1 : 2;
+                    int rank = 0;
+                    for (int other = 0; other < cell; other++)
+                        if (grid.get(rows, other) == 0)
+                            rank++;
+                    if (rank != index || exponent != expected)
+                        return "Spawn does not match seed at byte " + position;
+                }
+                grid.set(rows, cell, exponent);
+                spawns--;
+                position += 3;
+            } else {
+                return "Unknown entry " + entry + " at byte " + position;
+            }
+        }
+        if (spawns > 0)
+            return "Missing spawn at end of log";
+        return null;
+    }
+
+    private String time(final byte[] log, final int position, final int end) {
+        if (position + 8 > end)
+            return "Truncated time at byte " + position;
+        long time = 0L;
+        for (int i = 1; i < 8; i++)
+            time = time << 8 | log[position + i] & 0xff;
+        if (since < 0L) {
+            since = time;
+        } else {
+            if (time < since)
+                return "Time goes backwards at byte " + position;
+            elapsed += time - since;
+            since = -1L;
+        }
+        return null;
+    }
+
+    public boolean isAssisted() {
+        return assisted;
+    }
+
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public long getBoard() {
+        return board;
+    }
+
+    public long[] getRows() {
+        return rows;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getMaxTile() {
+        return grid.isClassic() ? Board.maxTile(board) : grid.maxTile(rows);
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+}
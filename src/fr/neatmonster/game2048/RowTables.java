@@ -0,0 +1,185 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+final class RowTables {
+    static final File FILE = new File(System.getProperty("game2048.tables",
+            System.getProperty("user.home") + File.separator + ".2048" + File.separator + "rows.bin"));
+
+    private static final int  ROWS      = 65536;
+    private static final int  MAGIC     = 0x524f5753;
+    private static final byte VERSION   = 1;
+    private static final int  HEADER    = 4 + 1 + 4;
+    private static final int  LEFT      = HEADER;
+    private static final int  RIGHT     = LEFT + 2 * ROWS;
+    private static final int  SCORES    = RIGHT + 2 * ROWS;
+    private static final int  HEURISTIC = SCORES + 4 * ROWS;
+    private static final int  SIZE      = HEURISTIC + 4 * ROWS + 4;
+    private static final int  SIGNATURE = signature();
+
+    private static RowTables shared     = null;
+    private static boolean   attempted  = false;
+
+    private final MappedByteBuffer buffer;
+
+    private RowTables(final MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    static synchronized RowTables get() {
+        if (attempted)
+            return shared;
+        attempted = true;
+        shared = open(FILE);
+        if (shared == null)
+            generate(FILE);
+        return shared;
+    }
+
+    private static int signature() {
+        final float[] weights = {Heuristic.LOST_PENALTY, Heuristic.MONOTONICITY_POWER, Heuristic.MONOTONICITY,
+                Heuristic.SUM_POWER, Heuristic.SUM, Heuristic.MERGES, Heuristic.EMPTY};
+        int signature = 0;
+        for (final float weight : weights)
+            signature = signature * 31 + Float.floatToIntBits(weight);
+        return signature;
+    }
+
+    static RowTables open(final File file) {
+        if (!file.isFile() || file.length() != SIZE)
+            return null;
+        try {
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            final MappedByteBuffer buffer;
+            try {
+                buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0L, SIZE);
+            } finally {
+                raf.close();
+            }
+            if (buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION || buffer.getInt(5) != SIGNATURE)
+                return null;
+            final CRC32 crc = new CRC32();
+            final ByteBuffer content = buffer.duplicate();
+            content.limit(SIZE - 4);
+            crc.update(content);
+            if ((int) crc.getValue() != buffer.getInt(SIZE - 4))
+                return null;
+            return new RowTables(buffer);
+        } catch (final IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static void generate(final File file) {
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    write(file);
+                } catch (final IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }, "RowTables");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    static void write(final File file) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.putInt(MAGIC).put(VERSION).putInt(SIGNATURE);
+        for (int row = 0; row < ROWS; row++)
+            buffer.putChar(LEFT + 2 * row, (char) Board.left(row));
+        for (int row = 0; row < ROWS; row++)
+            buffer.putChar(RIGHT + 2 * row, (char) Board.right(row));
+        for (int row = 0; row < ROWS; row++)
+            buffer.putInt(SCORES + 4 * row, Board.rowScore(row));
+        for (int row = 0; row < ROWS; row++)
+            buffer.putFloat(HEURISTIC + 4 * row, Heuristic.evaluate(row));
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, SIZE - 4);
+        buffer.putInt(SIZE - 4, (int) crc.getValue());
+        final File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Cannot create " + directory);
+        final File temporary = File.createTempFile("rows", ".tmp", directory);
+        try {
+            final FileOutputStream output = new FileOutputStream(temporary);
+            try {
+                output.write(buffer.array());
+                output.getFD().sync();
+            } finally {
+                output.close();
+            }
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            if (temporary.exists() && !temporary.delete())
+                temporary.deleteOnExit();
+        }
+    }
+
+    void left(final char[] into) {
+        section(LEFT, 2 * ROWS).asCharBuffer().get(into);
+    }
+
+    void right(final char[] into) {
+        section(RIGHT, 2 * ROWS).asCharBuffer().get(into);
+    }
+
+    void scores(final int[] into) {
+        section(SCORES, 4 * ROWS).asIntBuffer().get(into);
+    }
+
+    void heuristic(final float[] into) {
+        section(HEURISTIC, 4 * ROWS).asFloatBuffer().get(into);
+    }
+
+    private ByteBuffer section(final int offset, final int length) {
+        final ByteBuffer section = buffer.duplicate();
+        section.position(offset);
+        section.limit(offset + length);
+        return section.slice();
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final File file = args.length > 0 ? new File(args[0]) : FILE;
+        final long start = System.nanoTime();
+        write(file);
+        System.out.println(String.format("Wrote %s (%d bytes) in %.1f ms", file, SIZE, (System.nanoTime() - start) / 1e6));
+    }
+}
@@ -31,9 +31,10 @@ public class Score extends Animation {
     private final int      value;
 
     public Score(final Game2048 game, final int value) {
-        super(300);
+        super(600);
         this.game = game;
         this.value = value;
+        bounds = Layout.HEADER;
     }
 
     @Override
@@ -43,6 +44,6 @@ public class Score extends Animation {
         final Font font = Game2048.FONT.deriveFont(40f);
         g.setFont(font);
         final Rectangle2D bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), "+" + value).getVisualBounds();
-        g.drawString("+" + value, game.scoreX - 10 - (int) bounds.getWidth(), 98 - (int) (getPercentage() * 150f));
+        g.drawString("+" + value, game.layout.getScoreX() - 10 - (int) bounds.getWidth(), 98 - (int) (getPercentage() * 150f));
     }
 }
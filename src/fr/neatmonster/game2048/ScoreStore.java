@@ -0,0 +1,363 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+public class ScoreStore {
+    public static final int TOP      = 100;
+    public static final int USER_TOP = 10;
+
+    private static final long    SEGMENT_SIZE = 64L << 20;
+    private static final int     HEADER       = 8;
+    private static final int     FIXED        = 27;
+    private static final int     MAX_SCORE    = (1 << 22) - 1;
+    private static final Charset UTF8         = Charset.forName("UTF-8");
+
+    private final File              directory;
+    private final Map<String, User> users    = new HashMap<String, User>();
+    private final Record[]          top      = new Record[TOP];
+    private final int[]             ranks    = new int[MAX_SCORE + 2];
+    private final Hashes            hashes   = new Hashes();
+    private final CRC32             crc      = new CRC32();
+    private final byte[]            scratch  = new byte[FIXED + 65535];
+    private final ByteBuffer        record   = ByteBuffer.wrap(scratch);
+    private       int               size     = 0;
+    private       long              records  = 0L;
+    private       int               segment  = -1;
+    private       MappedByteBuffer  buffer   = null;
+    private       boolean           loading  = true;
+
+    public ScoreStore(final File directory) throws IOException {
+        this.directory = directory;
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Cannot create " + directory);
+        final File[] files = directory.listFiles(new FilenameFilter() {
+
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.startsWith("scores-") && name.endsWith(".seg");
+            }
+        });
+        Arrays.sort(files);
+        for (final File file : files)
+            segment = Math.max(segment, Integer.parseInt(file.getName().substring(7, file.getName().length() - 4)));
+        for (final File file : files)
+            scan(file);
+        if (segment < 0)
+            open(0);
+        for (final User user : users.values())
+            ranks[Math.min(user.best(), MAX_SCORE) + 1]++;
+        for (int i = 1; i < ranks.length; i++) {
+            final int parent = i + (i & -i);
+            if (parent < ranks.length)
+                ranks[parent] += ranks[i];
+        }
+        loading = false;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final File directory = new File(args.length > 0 ? args[0] : "scores-bench");
+        final int count = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        final Random random = new Random();
+        ScoreStore store = new ScoreStore(directory);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++)
+            store.add("player" + random.nextInt(count / 10 + 1), random.nextInt(100000), 11, 1000, 600000L, random.nextLong());
+        store.flush();
+        System.out.println(String.format("%d appends in %.3f s", count, (System.nanoTime() - start) / 1e9));
+        start = System.nanoTime();
+        store = new ScoreStore(directory);
+        System.out.println(String.format("%d records, %d users rebuilt in %.3f s", store.getRecords(), store.getUsers(),
+                (System.nanoTime() - start) / 1e9));
+        final int queries = 100000;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++)
+            store.top(TOP);
+        System.out.println(String.format("top %d: %.2f us", TOP, (System.nanoTime() - start) / 1e3 / queries));
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++)
+            store.rank("player" + random.nextInt(count / 10 + 1));
+        System.out.println(String.format("rank: %.2f us", (System.nanoTime() - start) / 1e3 / queries));
+    }
+
+    private static File file(final File directory, final int segment) {
+        return new File(directory, String.format("scores-%05d.seg", segment));
+    }
+
+    private static MappedByteBuffer map(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, SEGMENT_SIZE);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private void open(final int index) throws IOException {
+        if (buffer != null)
+            buffer.force();
+        segment = index;
+        buffer = map(file(directory, index));
+    }
+
+    private void scan(final File file) throws IOException {
+        final MappedByteBuffer mapped = map(file);
+        final ByteBuffer view = mapped.duplicate();
+        int position = 0;
+        while (position + HEADER + FIXED <= SEGMENT_SIZE) {
+            final int length = mapped.getInt(position);
+            if (length < FIXED || length > scratch.length || position + HEADER + length > SEGMENT_SIZE)
+                break;
+            view.position(position + HEADER);
+            view.get(scratch, 0, length);
+            if (mapped.getInt(position + 4) != checksum(length))
+                break;
+            final long logHash = record.getLong(0);
+            hashes.add(logHash);
+            index(new Record(new String(scratch, FIXED, length - FIXED, UTF8), record.getInt(8), record.get(24),
+                    record.getInt(12), record.getLong(16), logHash));
+            position += HEADER + length;
+        }
+        if (file.equals(file(directory, segment))) {
+            buffer = mapped;
+            buffer.position(position);
+            for (int i = position; i < Math.min(position + HEADER, SEGMENT_SIZE); i++)
+                buffer.put(i, (byte) 0);
+        }
+    }
+
+    private int checksum(final int length) {
+        crc.reset();
+        crc.update(scratch, 0, length);
+        return (int) crc.getValue();
+    }
+
+    public synchronized boolean add(final String username, final int score, final int maxTile, final int moves,
+                                    final long duration, final long logHash) throws IOException {
+        if (!hashes.add(logHash))
+            return false;
+        final byte[] name = username.getBytes(UTF8);
+        if (name.length > 65535)
+            throw new IllegalArgumentException("Username too long");
+        final int length = FIXED + name.length;
+        if (buffer.position() + HEADER + length + HEADER > SEGMENT_SIZE)
+            open(segment + 1);
+        record.clear();
+        record.putLong(logHash).putInt(score).putInt(moves).putLong(duration).put((byte) maxTile).putShort((short) name.length).put(name);
+        final int position = buffer.position();
+        buffer.position(position + HEADER);
+        buffer.put(scratch, 0, length);
+        buffer.putInt(position + 4, checksum(length));
+        buffer.putInt(position, length);
+        index(new Record(username, score, maxTile, moves, duration, logHash));
+        return true;
+    }
+
+    private void index(final Record record) {
+        records++;
+        User user = users.get(record.username);
+        if (user == null) {
+            user = new User();
+            users.put(record.username, user);
+            if (!loading)
+                rank(record.score, 1);
+        } else if (!loading && record.score > user.best()) {
+            rank(user.best(), -1);
+            rank(record.score, 1);
+        }
+        user.insert(record);
+        if (size < TOP || record.score > top[size - 1].score) {
+            int i = size < TOP ? size++ : TOP - 1;
+            while (i > 0 && top[i - 1].score < record.score) {
+                top[i] = top[i - 1];
+                i--;
+            }
+            top[i] = record;
+        }
+    }
+
+    private void rank(final int score, final int delta) {
+        for (int i = Math.min(score, MAX_SCORE) + 1; i < ranks.length; i += i & -i)
+            ranks[i] += delta;
+    }
+
+    private int countAtMost(final int score) {
+        int count = 0;
+        for (int i = Math.min(score, MAX_SCORE) + 1; i > 0; i -= i & -i)
+            count += ranks[i];
+        return count;
+    }
+
+    public synchronized List<Record> top(final int count) {
+        return new ArrayList<Record>(Arrays.asList(top).subList(0, Math.max(0, Math.min(count, size))));
+    }
+
+    public synchronized List<Record> top(final String username) {
+        final User user = users.get(username);
+        if (user == null)
+            return new ArrayList<Record>();
+        return new ArrayList<Record>(Arrays.asList(user.top).subList(0, user.size));
+    }
+
+    public synchronized int rank(final String username) {
+        final User user = users.get(username);
+        if (user == null)
+            return -1;
+        return users.size() - countAtMost(user.best()) + 1;
+    }
+
+    public synchronized int best(final String username) {
+        final User user = users.get(username);
+        return user == null ? -1 : user.best();
+    }
+
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    public synchronized int getUsers() {
+        return users.size();
+    }
+
+    public static class Record {
+        private final String username;
+        private final int    score;
+        private final int    maxTile;
+        private final int    moves;
+        private final long   duration;
+        private final long   logHash;
+
+        Record(final String username, final int score, final int maxTile, final int moves, final long duration,
+               final long logHash) {
+            this.username = username;
+            this.score = score;
+            this.maxTile = maxTile;
+            this.moves = moves;
+            this.duration = duration;
+            this.logHash = logHash;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getMaxTile() {
+            return maxTile;
+        }
+
+        public int getMoves() {
+            return moves;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+
+        public long getLogHash() {
+            return logHash;
+        }
+    }
+
+    private static class User {
+        private final Record[] top  = new Record[USER_TOP];
+        private       int      size = 0;
+
+        int best() {
+            return top[0].score;
+        }
+
+        void insert(final Record record) {
+            if (size == USER_TOP && record.score <= top[size - 1].score)
+                return;
+            int i = size < USER_TOP ? size++ : USER_TOP - 1;
+            while (i > 0 && top[i - 1].score < record.score) {
+                top[i] = top[i - 1];
+                i--;
+            }
+            top[i] = record;
+        }
+    }
+
+    private static class Hashes {
+        private long[]  table = new long[1024];
+        private boolean zero  = false;
+        private int     size  = 0;
+
+        boolean add(final long hash) {
+            if (hash == 0L) {
+                final boolean added = !zero;
+                zero = true;
+                return added;
+            }
+            if (size * 2 >= table.length)
+                grow();
+            return insert(table, hash);
+        }
+
+        private boolean insert(final long[] table, final long hash) {
+            final int mask = table.length - 1;
+            int i = (int) (hash ^ hash >>> 32) * 0x9E3779B9 & mask;
+            while (table[i] != 0L) {
+                if (table[i] == hash)
+                    return false;
+                i = i + 1 & mask;
+            }
+            table[i] = hash;
+            size++;
+            return true;
+        }
+
+        private void grow() {
+            final long[] old = table;
+            table = new long[old.length * 2];
+            size = 0;
+            for (final long hash : old)
+                if (hash != 0L)
+                    insert(table, hash);
+        }
+    }
+}
@@ -23,19 +23,42 @@
  */
 package fr.neatmonster.game2048;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
 import java.nio.ByteBuffer;
 
 public class Scoreboard {
-    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+    static final String URL    = System.getProperty("game2048.submit", "http://2048.neatmonster.fr/submit");
+    static final File   OUTBOX = new File(System.getProperty("user.home"), ".2048" + File.separator + "outbox");
+
+    private final Submitter    submitter;
+    private final Grid         grid;
+    private volatile LogBuffer log = new LogBuffer();
+
+    public Scoreboard() {
+        this(Grid.CLASSIC);
+    }
+
+    public Scoreboard(final Grid grid) {
+        this(grid, new Submitter(URL, OUTBOX));
+    }
+
+    public Scoreboard(final Submitter submitter) {
+        this(Grid.CLASSIC, submitter);
+    }
+
+    public Scoreboard(final Grid grid, final Submitter submitter) {
+        this.grid = grid;
+        this.submitter = submitter;
+    }
 
     public void logAdd(final Tile tile, final TileValue value) {
+        if (!grid.isClassic()) {
+            log.write((byte) 8);
+            log.write((byte) (tile.getX() + tile.getY() * grid.getWidth()));
+            log.write((byte) value.ordinal());
+            return;
+        }
         byte add = 0;
         add |= tile.getX();
         add |= tile.getY() << 2;
@@ -59,29 +82,58 @@ public class Scoreboard {
         }
     }
 
+    public void logUndo() {
+        log.write((byte) 6);
+    }
+
+    public void logSeed(final long seed) {
+        log.write((byte) 5);
+        for (int shift = 56; shift >= 0; shift -= 8)
+            log.write((byte) (seed >>> shift));
+    }
+
     public void reset() {
-        log.reset();
+        log = new LogBuffer();
+        if (!grid.isClassic()) {
+            log.write((byte) 7);
+            log.write((byte) grid.getWidth());
+            log.write((byte) grid.getHeight());
+        }
     }
 
-    public String send(final String username) {
-        try {
-            String url = "http://2048.neatmonster.fr/submit";
-            url += "?username=";
-            url += username;
-            url += "&log=";
-            url += URLEncoder.encode(Base64.encode(log.toByteArray()), "UTF-8");
-            final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-            final BufferedReader input = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            String inputLine, response = "";
-            while ((inputLine = input.readLine()) != null)
-                response += inputLine;
-            input.close();
-            if (response.equals("true"))
-                return null;
-            return response;
-        } catch (final Exception e) {
-            e.printStackTrace();
-            return e.getMessage();
+    void restore(final LogBuffer log) {
+        this.log = log;
+    }
+
+    LogBuffer getLog() {
+        return log;
+    }
+
+    public void send(final String username, final Submitter.Callback callback) {
+        if (submitter == null) {
+            callback.failed("Scores cannot be submitted from this game");
+            return;
         }
+        final long start = System.nanoTime();
+        submitter.submit(new Submission(username, log), new Submitter.Callback() {
+
+            @Override
+            public void submitted() {
+                Metrics.INSTANCE.sent(System.nanoTime() - start, true);
+                callback.submitted();
+            }
+
+            @Override
+            public void queued() {
+                Metrics.INSTANCE.sent(System.nanoTime() - start, false);
+                callback.queued();
+            }
+
+            @Override
+            public void failed(final String message) {
+                Metrics.INSTANCE.sent(System.nanoTime() - start, false);
+                callback.failed(message);
+            }
+        });
     }
 }
@@ -0,0 +1,228 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class Simulation {
+    private static final int CHUNK = 256;
+
+    private final Strategy strategy;
+    private final Grid     grid;
+    private final long     seed;
+    private final int[]    scores;
+    private final byte[]   maxTiles;
+    private       long     moves    = 0L;
+    private       long     duration = 0L;
+
+    public Simulation(final Strategy strategy, final int games) {
+        this(strategy, games, new SplitRandom().nextLong());
+    }
+
+    public Simulation(final Strategy strategy, final int games, final long seed) {
+        this(strategy, games, seed, Grid.CLASSIC);
+    }
+
+    public Simulation(final Strategy strategy, final int games, final long seed, final Grid grid) {
+        if (!grid.isClassic() && strategy != Strategy.RANDOM && strategy != Strategy.GREEDY)
+            throw new IllegalArgumentException("Custom strategies only play 4x4 boards");
+        this.strategy = strategy;
+        this.grid = grid;
+        this.seed = seed;
+        scores = new int[games];
+        maxTiles = new byte[games];
+    }
+
+    public static void main(final String[] args) {
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        final String name = args.length > 1 ? args[1] : "random";
+        final Strategy strategy;
+        if (name.equals("random"))
+            strategy = Strategy.RANDOM;
+        else if (name.equals("greedy"))
+            strategy = Strategy.GREEDY;
+        else
+            try {
+                strategy = (Strategy) Class.forName(name).getDeclaredConstructor().newInstance();
+            } catch (final Exception e) {
+                System.err.println("Unknown strategy " + name);
+                return;
+            }
+        final Simulation simulation;
+        if (args.length > 3)
+            simulation = new Simulation(strategy, games, Long.parseLong(args[2]), Grid.parse(args[3]));
+        else if (args.length > 2)
+            simulation = new Simulation(strategy, games, Long.parseLong(args[2]));
+        else
+            simulation = new Simulation(strategy, games);
+        simulation.run(new ForkJoinPool());
+        simulation.report();
+    }
+
+    public void run(final ForkJoinPool pool) {
+        final long start = System.nanoTime();
+        moves = pool.invoke(new Games(0, scores.length));
+        duration = System.nanoTime() - start;
+    }
+
+    long play(final int game, final Random random) {
+        if (!grid.isClassic())
+            return playGrid(game, random);
+        long board = Board.spawn(Board.spawn(0L, random), random);
+        int score = 0, count = 0;
+        while (!Board.isBlocked(board)) {
+            final int direction = strategy.choose(board, random);
+            final long moved = Board.move(board, direction);
+            if (moved == board)
+                break;
+            score += Board.score(board, direction);
+            board = Board.spawn(moved, random);
+            count++;
+        }
+        scores[game] = score;
+        maxTiles[game] = (byte) Board.maxTile(board);
+        return count;
+    }
+
+    private long playGrid(final int game, final Random random) {
+        long[] rows = grid.create(), best = grid.create(), moved = grid.create();
+        grid.spawn(rows, random);
+        grid.spawn(rows, random);
+        int score = 0, count = 0;
+        while (true) {
+            int gained = -1;
+            if (strategy == Strategy.RANDOM) {
+                for (int untried = 0xf, left = 4; left > 0 && gained < 0; left--) {
+                    int index = random.nextInt(left), direction = Board.UP;
+                    for (int bit = 0; bit < 4; bit++)
+                        if ((untried & 1 << bit) != 0 && index-- == 0)
+                            direction = Board.UP + bit;
+                    untried &= ~(1 << direction - Board.UP);
+                    gained = grid.move(rows, direction, best);
+                }
+            } else {
+                int bestRank = -1;
+                for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+                    final int moveScore = grid.move(rows, direction, moved);
+                    if (moveScore < 0)
+                        continue;
+                    final int rank = moveScore * 16 + grid.emptyCells(moved);
+                    if (rank > bestRank) {
+                        bestRank = rank;
+                        gained = moveScore;
+                        final long[] swap = best;
+                        best = moved;
+                        moved = swap;
+                    }
+                }
+            }
+            if (gained < 0)
+                break;
+            score += gained;
+            final long[] swap = rows;
+            rows = best;
+            best = swap;
+            grid.spawn(rows, random);
+            count++;
+        }
+        scores[game] = score;
+        maxTiles[game] = (byte) grid.maxTile(rows);
+        return count;
+    }
+
+    public void report() {
+        final double seconds = duration / 1e9;
+        System.out.println(scores.length + " " + grid + " games with seed " + seed + " in " + String.format("%.3f", seconds) + " s");
+        System.out.println(String.format("%.0f games/s, %.0f moves/s", scores.length / seconds, moves / seconds));
+        if (scores.length == 0)
+            return;
+        final int[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        System.out.println("score p10=" + percentile(sorted, 10) + " p50=" + percentile(sorted, 50) + " p90="
+                + percentile(sorted, 90) + " p99=" + percentile(sorted, 99) + " max=" + sorted[sorted.length - 1]);
+        final int[] distribution = new int[16];
+        for (final byte maxTile : maxTiles)
+            distribution[maxTile]++;
+        for (int exponent = 1; exponent < 16; exponent++)
+            if (distribution[exponent] > 0)
+                System.out.println(String.format("%6d: %6.2f%%", 1 << exponent, 100.0 * distribution[exponent] / maxTiles.length));
+    }
+
+    private static int percentile(final int[] sorted, final int percent) {
+        return sorted[(int) ((sorted.length - 1) * (long) percent / 100L)];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int[] getScores() {
+        return scores;
+    }
+
+    public byte[] getMaxTiles() {
+        return maxTiles;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    private class Games extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Games(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= CHUNK) {
+                final SplitRandom random = new SplitRandom(0L);
+                long count = 0L;
+                for (int game = from; game < to; game++) {
+                    random.setSeed(SplitRandom.mix(seed + game));
+                    count += play(game, random);
+                }
+                return count;
+            }
+            final int middle = (from + to) >>> 1;
+            final Games left = new Games(from, middle);
+            left.fork();
+            final long right = new Games(middle, to).compute();
+            return left.join() + right;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+
+public class Snapshot {
+    static final File FILE = new File(System.getProperty("user.home"), ".2048" + File.separator + "save.bin");
+
+    private static final int             MAGIC   = 0x32303438;
+    private static final byte            VERSION = 2;
+    private static final int             FIXED   = 4 + 1 + 1 + 1 + 4 + 4 + 4 + 8 + 1 + 8 + 8 + 4;
+    private static final ExecutorService WRITER  = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "Snapshot");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Grid      grid;
+    private final long[]    board;
+    private final int       score;
+    private final int       best;
+    private final int       moves;
+    private final long      elapsed;
+    private final boolean   won;
+    private final long      seed;
+    private final long      state;
+    private final LogBuffer log;
+    private final int       length;
+    private final long      pause;
+
+    public Snapshot(final Grid grid, final int best) {
+        this(grid, new long[grid.getWords()], 0, best, 0, 0L, false, 0L, 0L, new LogBuffer(1), -1L);
+    }
+
+    public Snapshot(final Grid grid, final long[] board, final int score, final int best, final int moves,
+                    final long elapsed, final boolean won, final long seed, final long state, final LogBuffer log,
+                    final long pause) {
+        this.grid = grid;
+        this.board = board;
+        this.score = score;
+        this.best = best;
+        this.moves = moves;
+        this.elapsed = elapsed;
+        this.won = won;
+        this.seed = seed;
+        this.state = state;
+        this.log = log;
+        this.pause = pause;
+        length = log.size();
+    }
+
+    public static Future<?> save(final Snapshot snapshot) {
+        return WRITER.submit(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    snapshot.write(file(snapshot.grid));
+                } catch (final IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    static File file(final Grid grid) {
+        return grid.isClassic() ? FILE : new File(FILE.getParentFile(), "save-" + grid + ".bin");
+    }
+
+    public static Snapshot read(final File file) {
+        if (!file.isFile())
+            return null;
+        try {
+            final byte[] data = new byte[(int) file.length()];
+            final DataInputStream input = new DataInputStream(new FileInputStream(file));
+            try {
+                input.readFully(data);
+            } finally {
+                input.close();
+            }
+            if (data.length < FIXED + 4)
+                throw new IOException("Truncated snapshot");
+            final ByteBuffer buffer = ByteBuffer.wrap(data);
+            final CRC32 crc = new CRC32();
+            crc.update(data, 0, data.length - 4);
+            if ((int) crc.getValue() != buffer.getInt(data.length - 4))
+                throw new IOException("Snapshot checksum mismatch");
+            final int magic = buffer.getInt();
+            final byte version = buffer.get();
+            if (magic != MAGIC || version < 1 || version > VERSION)
+                throw new IOException("Unknown snapshot format");
+            final Grid grid = version == 1 ? Grid.CLASSIC : Grid.of(buffer.get(), buffer.get());
+            final long[] board = new long[grid.getWords()];
+            for (int word = 0; word < board.length; word++)
+                board[word] = buffer.getLong();
+            final int score = buffer.getInt();
+            final int best = buffer.getInt();
+            final int moves = buffer.getInt();
+            final long elapsed = buffer.getLong();
+            final boolean won = buffer.get() != 0;
+            final long seed = buffer.getLong();
+            final long state = buffer.getLong();
+            final int length = buffer.getInt();
+            if (length < 0 || length != data.length - buffer.position() - 4)
+                throw new IOException("Invalid snapshot log length");
+            final LogBuffer log = new LogBuffer(Math.max(length, 1024));
+            log.write(data, buffer.position(), length);
+            return new Snapshot(grid, board, score, best, moves, elapsed, won, seed, state, log, -1L);
+        } catch (final BufferUnderflowException e) {
+            e.printStackTrace();
+            return null;
+        } catch (final IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        } catch (final IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    void write(final File file) throws IOException {
+        final File directory = file.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Cannot create " + directory);
+        final int total = length + (pause < 0L ? 0 : 8);
+        final ByteBuffer buffer = ByteBuffer.allocate(FIXED + 8 * board.length + total + 4);
+        buffer.putInt(MAGIC).put(VERSION).put((byte) grid.getWidth()).put((byte) grid.getHeight());
+        for (final long word : board)
+            buffer.putLong(word);
+        buffer.putInt(score).putInt(best).putInt(moves).putLong(elapsed).put((byte) (won ? 1 : 0)).putLong(seed)
+                .putLong(state).putInt(total);
+        buffer.put(log.buffer(), 0, length);
+        if (pause >= 0L) {
+            buffer.put((byte) 0);
+            for (int shift = 48; shift >= 0; shift -= 8)
+                buffer.put((byte) (pause >>> shift));
+        }
+        final CRC32 crc = new CRC32();
+        final byte[] data = buffer.array();
+        crc.update(data, 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        final File temporary = File.createTempFile("save", ".tmp", directory);
+        try {
+            final FileOutputStream output = new FileOutputStream(temporary);
+            try {
+                output.write(data);
+                output.getFD().sync();
+            } finally {
+                output.close();
+            }
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            if (temporary.exists() && !temporary.delete())
+                temporary.deleteOnExit();
+        }
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public long[] getBoard() {
+        return board;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getBest() {
+        return best;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    public boolean hasWon() {
+        return won;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public LogBuffer getLog() {
+        return log;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.util.Random;
+
+public class Solver {
+    static final float MIN_PROBABILITY = 0.0001f;
+    static final int   MAX_DEPTH       = 16;
+
+    private final    TranspositionTable table;
+    private          long               deadline  = Long.MAX_VALUE;
+    private volatile boolean            cancelled = false;
+                     boolean            aborted   = false;
+                     long               nodes     = 0L;
+    private          long               duration  = 0L;
+    private          int                depth     = 0;
+
+    public Solver() {
+        this(20);
+    }
+
+    public Solver(final int tableBits) {
+        this(new TranspositionTable(tableBits));
+    }
+
+    Solver(final TranspositionTable table) {
+        this.table = table;
+    }
+
+    public static void main(final String[] args) {
+        final long budget = args.length > 0 ? Long.parseLong(args[0]) : 5L;
+        final Solver solver = new Solver();
+        final Random random = new Random();
+        long board = Board.spawn(Board.spawn(0L, random), random), nodes = 0L, duration = 0L;
+        int score = 0, moves = 0;
+        while (!Board.isBlocked(board)) {
+            final int direction = solver.bestMove(board, budget);
+            score += Board.score(board, direction);
+            board = Board.spawn(Board.move(board, direction), random);
+            nodes += solver.getNodes();
+            duration += solver.getDuration();
+            moves++;
+        }
+        System.out.println(moves + " moves, score " + score + ", max tile " + (1 << Board.maxTile(board)));
+        System.out.println(String.format("%.0f nodes/s", nodes * 1e9 / duration));
+    }
+
+    public int bestMove(final long board, final long budget) {
+        final long start = System.nanoTime();
+        deadline = start + budget * 1000000L;
+        cancelled = aborted = false;
+        nodes = 0L;
+        int best = firstLegal(board);
+        for (depth = 1; depth <= MAX_DEPTH; depth++) {
+            final int direction = search(board, depth);
+            if (aborted)
+                break;
+            best = direction;
+        }
+        depth--;
+        duration = System.nanoTime() - start;
+        return best;
+    }
+
+    public int bestMoveAtDepth(final long board, final int depth) {
+        final long start = System.nanoTime();
+        deadline = Long.MAX_VALUE;
+        cancelled = aborted = false;
+        nodes = 0L;
+        final int best = search(board, depth);
+        this.depth = depth;
+        duration = System.nanoTime() - start;
+        return best;
+    }
+
+    static int firstLegal(final long board) {
+        for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+            if (Board.move(board, direction) != board)
+                return direction;
+        return Board.UP;
+    }
+
+    private int search(final long board, final int depth) {
+        int best = firstLegal(board);
+        float bestValue = -1f;
+        for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+            final long moved = Board.move(board, direction);
+            if (moved == board)
+                continue;
+            final float value = chance(moved, depth, 1f);
+            if (value > bestValue) {
+                bestValue = value;
+                best = direction;
+            }
+        }
+        return best;
+    }
+
+    float max(final long board, final int depth, final float probability) {
+        float best = 0f;
+        for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+            final long moved = Board.move(board, direction);
+            if (moved != board)
+                best = Math.max(best, chance(moved, depth, probability));
+        }
+        return best;
+    }
+
+    float chance(final long board, final int depth, final float probability) {
+        if ((++nodes & 0x3ff) == 0 && expired())
+            aborted = true;
+        if (aborted)
+            return 0f;
+        if (depth == 0 || probability < MIN_PROBABILITY)
+            return Heuristic.score(board);
+        final long hit = table.get(board, depth);
+        if (hit >= 0L)
+            return Float.intBitsToFloat((int) hit);
+        final int empty = Board.emptyCells(board);
+        final float two = probability * 0.9f / empty, four = probability * 0.1f / empty;
+        float sum = 0f;
+        for (int cell = 0; cell < 16; cell++) {
+            if (Board.get(board, cell) != 0)
+                continue;
+            sum += 0.9f * max(Board.set(board, cell, 1), depth - 1, two);
+            sum += 0.1f * max(Board.set(board, cell, 2), depth - 1, four);
+        }
+        final float value = sum / empty;
+        if (!aborted)
+            table.put(board, depth, value);
+        return value;
+    }
+
+    boolean expired() {
+        return cancelled || System.nanoTime() > deadline;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public void clear() {
+        table.clear();
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public double getNodesPerSecond() {
+        return duration == 0L ? 0.0 : nodes * 1e9 / duration;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
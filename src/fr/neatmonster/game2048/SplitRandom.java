@@ -0,0 +1,104 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SplitRandom extends Random {
+    private static final long       serialVersionUID = 1L;
+    private static final long       GAMMA            = 0x9E3779B97F4A7C15L;
+    private static final AtomicLong UNIQUE           = new AtomicLong(System.nanoTime());
+
+    private long seed;
+    private long state;
+
+    public SplitRandom() {
+        this(mix(UNIQUE.addAndGet(GAMMA) ^ System.nanoTime()));
+    }
+
+    public SplitRandom(final long seed) {
+        super(0L);
+        this.seed = state = seed;
+    }
+
+    public static long mix(long z) {
+        z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+        return z ^ z >>> 31;
+    }
+
+    @Override
+    public void setSeed(final long seed) {
+        this.seed = state = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(final long state) {
+        this.state = state;
+    }
+
+    public SplitRandom split() {
+        return new SplitRandom(nextLong());
+    }
+
+    @Override
+    protected int next(final int bits) {
+        return (int) (nextLong() >>> 64 - bits);
+    }
+
+    @Override
+    public long nextLong() {
+        return mix(state += GAMMA);
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+        if (bound <= 0)
+            throw new IllegalArgumentException("bound must be positive");
+        return (int) ((nextLong() >>> 33) * bound >>> 31);
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+final class Startup {
+    private static final boolean  VERBOSE = Boolean.getBoolean("game2048.startup");
+    private static final long     START   = System.nanoTime();
+    private static final String[] PHASES  = new String[16];
+    private static final long[]   TIMES   = new long[16];
+    private static       int      count   = 0;
+
+    private Startup() {
+    }
+
+    static synchronized void mark(final String phase) {
+        if (count == PHASES.length)
+            return;
+        PHASES[count] = phase;
+        TIMES[count++] = System.nanoTime() - START;
+        if (VERBOSE)
+            System.out.println(String.format("%8.1f ms  %s", TIMES[count - 1] / 1e6, phase));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.util.Random;
+
+public interface Strategy {
+
+    int choose(long board, Random random);
+
+    Strategy RANDOM = new Strategy() {
+
+        @Override
+        public int choose(final long board, final Random random) {
+            int legal = 0;
+            for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+                if (Board.move(board, direction) != board)
+                    legal |= 1 << direction;
+            if (legal == 0)
+                return Board.UP;
+            int index = random.nextInt(Integer.bitCount(legal));
+            for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+                if ((legal & 1 << direction) != 0 && index-- == 0)
+                    return direction;
+            return Board.UP;
+        }
+    };
+
+    Strategy GREEDY = new Strategy() {
+
+        @Override
+        public int choose(final long board, final Random random) {
+            int best = Board.UP, bestScore = -1;
+            for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+                final long moved = Board.move(board, direction);
+                if (moved == board)
+                    continue;
+                final int score = Board.score(board, direction) * 16 + Board.emptyCells(moved);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = direction;
+                }
+            }
+            return best;
+        }
+    };
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+public class Submission implements Submitter.Payload {
+    public static final int  MAGIC   = 0x32303438;
+    public static final byte VERSION = 1;
+    public static final int  MAX_LOG = 1 << 22;
+
+    private final String    username;
+    private final LogBuffer log;
+    private final int       length;
+
+    public Submission(final String username, final LogBuffer log) {
+        this.username = username;
+        this.log = log;
+        length = log.size();
+    }
+
+    public static Submission read(final InputStream in) throws IOException {
+        final DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC)
+            throw new IOException("Not a submission");
+        final int version = header.readByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported version " + version);
+        final String username = header.readUTF();
+        final int length = header.readInt();
+        if (length < 0 || length > MAX_LOG)
+            throw new IOException("Invalid log length " + length);
+        final int checksum = header.readInt();
+        final LogBuffer log = new LogBuffer();
+        final Inflater inflater = new Inflater();
+        try {
+            final InflaterInputStream body = new InflaterInputStream(in, inflater, 512);
+            final byte[] buffer = new byte[4096];
+            while (log.size() < length) {
+                final int read = body.read(buffer, 0, Math.min(buffer.length, length - log.size()));
+                if (read == -1)
+                    throw new EOFException("Truncated log");
+                log.write(buffer, 0, read);
+            }
+        } finally {
+            inflater.end();
+        }
+        if (log.checksum(length) != checksum)
+            throw new IOException("Checksum mismatch");
+        return new Submission(username, log);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LogBuffer getLog() {
+        return log;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public void writeTo(final OutputStream out) throws IOException {
+        final DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeUTF(username);
+        header.writeInt(length);
+        header.writeInt(log.checksum(length));
+        header.flush();
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            final DeflaterOutputStream body = new DeflaterOutputStream(out, deflater, 512);
+            log.writeTo(body, length);
+            body.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+public class Submitter {
+    private static final int  CONNECT_TIMEOUT = 5000;
+    private static final int  READ_TIMEOUT    = 10000;
+    private static final int  ATTEMPTS        = 3;
+    private static final long BACKOFF         = 500L;
+    private static final long FLUSH_PERIOD    = 300L;
+
+    private final String                   url;
+    private final File                     outbox;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "Submitter");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    public Submitter(final String url, final File outbox) {
+        this.url = url;
+        this.outbox = outbox;
+        executor.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                flush();
+            }
+        }, 10L, FLUSH_PERIOD, TimeUnit.SECONDS);
+    }
+
+    public void submit(final Submission submission, final Callback callback) {
+        executor.execute(new Attempt(submission, callback, 1));
+    }
+
+    String post(final Payload payload) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/octet-stream");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(0);
+        try {
+            final OutputStream output = new BufferedOutputStream(connection.getOutputStream());
+            payload.writeTo(output);
+            output.close();
+            final Reader input = new InputStreamReader(connection.getInputStream(), "UTF-8");
+            final StringBuilder response = new StringBuilder();
+            final char[] buffer = new char[256];
+            int read;
+            while ((read = input.read(buffer)) != -1)
+                response.append(buffer, 0, read);
+            input.close();
+            return response.toString().trim();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    void flush() {
+        final File[] files = outbox.listFiles(new FilenameFilter() {
+
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.endsWith(".sub");
+            }
+        });
+        if (files == null)
+            return;
+        Arrays.sort(files);
+        for (final File file : files) {
+            try {
+                post(new Payload() {
+
+                    @Override
+                    public void writeTo(final OutputStream out) throws IOException {
+                        final InputStream input = new FileInputStream(file);
+                        try {
+                            final byte[] buffer = new byte[4096];
+                            int read;
+                            while ((read = input.read(buffer)) != -1)
+                                out.write(buffer, 0, read);
+                        } finally {
+                            input.close();
+                        }
+                    }
+                });
+            } catch (final IOException e) {
+                return;
+            }
+            if (!file.delete())
+                file.deleteOnExit();
+        }
+    }
+
+    void store(final Payload payload) throws IOException {
+        if (!outbox.isDirectory() && !outbox.mkdirs())
+            throw new IOException("Cannot create " + outbox);
+        final String name = Long.toString(System.currentTimeMillis(), 36) + "-" + Long.toString(System.nanoTime() & 0xffffff, 36);
+        final File temporary = new File(outbox, name + ".tmp");
+        final OutputStream output = new BufferedOutputStream(new FileOutputStream(temporary));
+        try {
+            payload.writeTo(output);
+        } finally {
+            output.close();
+        }
+        if (!temporary.renameTo(new File(outbox, name + ".sub")))
+            throw new IOException("Cannot rename " + temporary);
+    }
+
+    public interface Payload {
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    public interface Callback {
+
+        void submitted();
+
+        void queued();
+
+        void failed(String message);
+    }
+
+    private class Attempt implements Runnable {
+        private final Submission submission;
+        private final Callback   callback;
+        private final int        attempt;
+
+        Attempt(final Submission submission, final Callback callback, final int attempt) {
+            this.submission = submission;
+            this.callback = callback;
+            this.attempt = attempt;
+        }
+
+        @Override
+        public void run() {
+            final String response;
+            try {
+                response = post(submission);
+            } catch (final IOException e) {
+                if (attempt < ATTEMPTS) {
+                    executor.schedule(new Attempt(submission, callback, attempt + 1), BACKOFF << attempt - 1, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                try {
+                    store(submission);
+                    callback.queued();
+                } catch (final IOException f) {
+                    f.printStackTrace();
+                    callback.failed(e.getMessage());
+                }
+                return;
+            }
+            if (response.equals("true"))
+                callback.submitted();
+            else
+                callback.failed(response);
+        }
+    }
+}
@@ -34,12 +34,16 @@ import java.awt.geom.RoundRectangle2D;
 import java.util.regex.Pattern;
 
 public class TextField extends JTextField implements FocusListener {
-    private boolean hint       = true;
-    private Shape   shape      = null;
-    private float   percentage = 0f;
-    private int     blink      = 0;
+    private static final int BLINK = 100;
+
+    private final Game2048 game;
+    private       boolean  hint       = true;
+    private       Shape    shape      = null;
+    private       float    percentage = 0f;
+    private       long     blink      = -BLINK;
 
     public TextField(final Game2048 game) {
+        this.game = game;
         setBackground(new Color(0, 0, 0, 0));
         setCaretColor(new Color(0x776e65));
         setFont(Game2048.FONT.deriveFont(18f));
@@ -65,11 +69,11 @@ public class TextField extends JTextField implements FocusListener {
     protected void paintComponent(final Graphics g) {
         g.setColor(new Color(252, 251, 249, (int) (percentage * 255f)));
         g.fillRoundRect(0, 0, getWidth() - 1, getHeight() - 1, 6, 6);
-        if (isBlinking()) {
-            final float percentage = blink < 25 ? 1f - (float) blink / 25f : (float) (blink - 25) / 25f;
+        final long elapsed = game.animator.timeline.now() - blink;
+        if (elapsed < BLINK) {
+            final float percentage = Math.abs(1f - 2f * elapsed / BLINK);
             g.setColor(new Color(255, 0, 0, (int) (percentage * 255)));
             g.drawRoundRect(0, 0, getWidth() - 1, getHeight() - 1, 6, 6);
-            blink--;
         }
         super.paintComponent(g);
     }
@@ -117,11 +121,12 @@ public class TextField extends JTextField implements FocusListener {
     }
 
     public boolean isBlinking() {
-        return blink > 0;
+        return game.animator.timeline.now() - blink < BLINK;
     }
 
     public void blink() {
-        blink = 50;
+        blink = game.animator.timeline.now();
+        game.animator.wake();
     }
 
     class UsernameFilter extends DocumentFilter {
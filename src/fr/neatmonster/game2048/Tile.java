@@ -28,12 +28,14 @@ import java.awt.*;
 class Tile {
     private final int       x;
     private final int       y;
+    private final Layout    layout;
     private       TileValue value;
     private       TileValue futureValue;
 
-    public Tile(final int x, final int y) {
+    public Tile(final int x, final int y, final Layout layout) {
         this.x = x;
         this.y = y;
+        this.layout = layout;
         value = futureValue = TileValue.TILE_EMPTY;
     }
 
@@ -46,11 +48,19 @@ class Tile {
     }
 
     public int getScreenX() {
-        return 22 + 15 + 120 * x;
+        return layout.getScreenX(x);
     }
 
     public int getScreenY() {
-        return 136 + 15 + 120 * y;
+        return layout.getScreenY(y);
+    }
+
+    public int getSize() {
+        return layout.tileSize;
+    }
+
+    public Rectangle getBounds() {
+        return new Rectangle(getScreenX(), getScreenY(), getSize(), getSize());
     }
 
     public TileValue getValue() {
@@ -74,6 +84,6 @@ class Tile {
     }
 
     public void paint(final Graphics2D g) {
-        value.paint(g, getScreenX(), getScreenY());
+        value.paint(g, getScreenX(), getScreenY(), getSize());
     }
 }
@@ -25,6 +25,8 @@ package fr.neatmonster.game2048;
 
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 public enum TileValue {
     TILE_EMPTY(1, 0xeee4da, 0xeee4da, 0f, 0),
@@ -43,11 +45,16 @@ public enum TileValue {
     TILE_8192(8192, 0x3c3a32, 0xf9f6f2, 30f, 1),
     TILE_16384(16384, 0x3c3a32, 0xf9f6f2, 30f, 3),
     TILE_32768(32768, 0x3c3a32, 0xf9f6f2, 30f, 0);
-    private final int       value;
-    private final TileColor background;
-    private final TileColor foreground;
-    private final float     fontSize;
-    private final int       offset;
+    private static final TileValue[]      VALUES   = values();
+    private static final int              SIZE     = 105;
+    private static final int              STEP     = 7;
+    private static final AlphaComposite[] ALPHAS   = new AlphaComposite[256];
+    private final        int              value;
+    private final        TileColor        background;
+    private final        TileColor        foreground;
+    private final        float            fontSize;
+    private final        int              offset;
+    private final        BufferedImage[]  sprites  = new BufferedImage[SIZE * 2 / STEP + 1];
 
     private TileValue(final int value, final int background, final int foreground, final float fontSize, final int offset) {
         this.value = value;
@@ -61,32 +68,69 @@ public enum TileValue {
         return value;
     }
 
-    public void paint(final Graphics2D g, final int x, final int y) {
-        paint(g, x, y, this == TileValue.TILE_EMPTY ? 90 : 255, 105);
+    public void paint(final Graphics2D g, final int x, final int y, final int base) {
+        paint(g, x, y, this == TileValue.TILE_EMPTY ? 90 : 255, base, base);
     }
 
-    public void paintAlpha(final Graphics2D g, final int x, final int y, final int alpha) {
-        paint(g, x, y, alpha, 105);
+    public void paintAlpha(final Graphics2D g, final int x, final int y, final int base, final int alpha) {
+        paint(g, x, y, alpha, base, base);
     }
 
-    public void paintSize(final Graphics2D g, final int x, final int y, final int size) {
-        paint(g, x, y, 255, size);
+    public void paintSize(final Graphics2D g, final int x, final int y, final int base, final int size) {
+        paint(g, x, y, 255, base, size);
     }
 
-    void paint(final Graphics2D g, final int x, final int y, final int alpha, final int size) {
-        g.setColor(background.derive(alpha));
-        g.fillRoundRect(x - (size - 105) / 2, y - (size - 105) / 2, size, size, 6, 6);
+    void paint(final Graphics2D g, final int x, final int y, final int alpha, final int base, final int size) {
+        final int step = Math.min((size + STEP / 2) / STEP, sprites.length - 1);
+        if (step == 0 || alpha <= 0)
+            return;
+        BufferedImage sprite = sprites[step];
+        if (sprite == null)
+            sprite = sprites[step] = render(step * STEP);
+        final int position = (step * STEP - base) / 2;
+        if (alpha >= 255) {
+            g.drawImage(sprite, x - position, y - position, null);
+        } else {
+            final Composite composite = g.getComposite();
+            AlphaComposite faded = ALPHAS[alpha];
+            if (faded == null)
+                faded = ALPHAS[alpha] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha / 255f);
+            g.setComposite(faded);
+            g.drawImage(sprite, x - position, y - position, null);
+            g.setComposite(composite);
+        }
+    }
+
+    private BufferedImage render(final int size) {
+        final BufferedImage sprite = Images.create(size, size, Transparency.TRANSLUCENT);
+        final Graphics2D g = Images.graphics(sprite);
+        g.setColor(background.derive(255));
+        g.fillRoundRect(0, 0, size, size, 6, 6);
         if (value > 1) {
-            g.setColor(foreground.derive(alpha));
-            final Font font = Game2048.FONT.deriveFont((float) size / 105f * fontSize);
+            g.setColor(foreground.derive(255));
+            final Font font = Game2048.FONT.deriveFont((float) size / SIZE * fontSize);
             g.setFont(font);
             final Rectangle2D bounds = font.createGlyphVector(g.getFontMetrics(font).getFontRenderContext(), "" + value).getVisualBounds();
-            g.drawString("" + value, x - offset + (105 - (int) bounds.getWidth()) / 2, y + (int) bounds.getHeight() + (105 - (int) bounds.getHeight()) / 2);
+            g.drawString("" + value, (size - SIZE) / 2 - offset * size / SIZE + (SIZE - (int) bounds.getWidth()) / 2,
+                    (size - SIZE) / 2 + (int) bounds.getHeight() + (SIZE - (int) bounds.getHeight()) / 2);
         }
+        g.dispose();
+        return sprite;
+    }
+
+    static void flush() {
+        for (final TileValue value : VALUES)
+            Arrays.fill(value.sprites, null);
+    }
+
+    public static TileValue of(final int exponent) {
+        return VALUES[exponent];
     }
 
     public TileValue next() {
-        return TileValue.valueOf("TILE_" + 2 * value);
+        if (ordinal() == Grid.MAX_EXPONENT)
+            throw new IllegalStateException(value + " is the largest tile");
+        return VALUES[ordinal() + 1];
     }
 
     public class TileColor {
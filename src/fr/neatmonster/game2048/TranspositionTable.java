@@ -0,0 +1,65 @@
+/*
+ * This file is part of 2048, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) NeatMonster <neatmonster@hotmail.fr>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package fr.neatmonster.game2048;
+
+import java.util.Arrays;
+
+class TranspositionTable {
+    private final long[] keys;
+    private final long[] entries;
+    private final int    shift;
+
+    TranspositionTable(final int bits) {
+        keys = new long[1 << bits];
+        entries = new long[1 << bits];
+        shift = 64 - bits;
+    }
+
+    private int index(final long board) {
+        return (int) (board * 0x9e3779b97f4a7c15L >>> shift);
+    }
+
+    long get(final long board, final int depth) {
+        final int index = index(board);
+        final long entry = entries[index];
+        if ((keys[index] ^ entry) != board || (int) (entry & 0xff) < depth)
+            return -1L;
+        return entry >>> 32;
+    }
+
+    void put(final long board, final int depth, final float value) {
+        final int index = index(board);
+        final long previous = entries[index];
+        if ((keys[index] ^ previous) == board && (int) (previous & 0xff) > depth)
+            return;
+        final long entry = (long) Float.floatToRawIntBits(value) << 32 | depth;
+        entries[index] = entry;
+        keys[index] = board ^ entry;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0L);
+    }
+}